@@ -0,0 +1,73 @@
+import java.util.*;
+
+// Como um jogador simulado escolhe a ação do turno. Jogadores paralisados não
+// chegam aqui: o simulador manda "paralyzed" como o prazo do servidor faria.
+public interface ActionPolicy {
+    PlayerAction choose(Player self, PlayerRegistry players, SplittableRandom random);
+
+    // Inimigo vivo aleatório com qualquer habilidade que caiba no MP; sem MP, defende
+    ActionPolicy RANDOM = (self, players, random) -> {
+        Player target = randomEnemy(self, players, random);
+        java.util.List<SkillInfo> skills = self.classInfo.skills;
+        int affordable = 0;
+        for (SkillInfo skill : skills) {
+            if (skill.mpCost <= self.mp) affordable++;
+        }
+        if (target == null || affordable == 0) {
+            return new PlayerAction(self.name, "defense", "", "", self.getAgility());
+        }
+        int pick = random.nextInt(affordable);
+        for (SkillInfo skill : skills) {
+            if (skill.mpCost <= self.mp && pick-- == 0) {
+                return attack(self, target, skill);
+            }
+        }
+        return new PlayerAction(self.name, "defense", "", "", self.getAgility());
+    };
+
+    // Habilidade de maior dano que caiba no MP contra o inimigo com menos HP
+    ActionPolicy GREEDY = (self, players, random) -> {
+        Player target = null;
+        for (Player player : players) {
+            if (player != self && player.isAlive && (target == null || player.hp < target.hp)) {
+                target = player;
+            }
+        }
+        SkillInfo best = null;
+        for (SkillInfo skill : self.classInfo.skills) {
+            if (skill.mpCost <= self.mp && (best == null || skill.baseDamage > best.baseDamage)) {
+                best = skill;
+            }
+        }
+        if (target == null || best == null) {
+            return new PlayerAction(self.name, "defense", "", "", self.getAgility());
+        }
+        return attack(self, target, best);
+    };
+
+    static ActionPolicy byName(String name) {
+        switch (name.toLowerCase()) {
+            case "random": return RANDOM;
+            case "greedy": return GREEDY;
+            default: throw new IllegalArgumentException("Política desconhecida: " + name);
+        }
+    }
+
+    static PlayerAction attack(Player self, Player target, SkillInfo skill) {
+        PlayerAction action = new PlayerAction(self.name, "attack", target.name, skill.name, self.getAgility());
+        action.skillInfo = skill;
+        return action;
+    }
+
+    static Player randomEnemy(Player self, PlayerRegistry players, SplittableRandom random) {
+        int enemies = players.getAliveCount() - (self.isAlive ? 1 : 0);
+        if (enemies <= 0) return null;
+        int pick = random.nextInt(enemies);
+        for (Player player : players) {
+            if (player != self && player.isAlive && pick-- == 0) {
+                return player;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,348 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Casos de microbenchmark do servidor, medidos pelo JMH em bench/ (ver README). Os
+// casos entram pelos mesmos pontos que a rede: ClientHandler.onMessage e onFrame no
+// servidor (o turno resolve em GameRoom.processTurnActions) e GameClient.readMessage +
+// processServerMessage no cliente. O main compara dois resultados do JMH (-rf csv):
+//          java -cp bench/target/benchmarks.jar Benchmarks bench-local.csv jmh-result.csv
+public class Benchmarks {
+    static final String GC_ALLOC = ":gc.alloc.rate.norm";
+
+    // Montados só quando o caso roda: cada fork prepara apenas o seu
+    // Cada operação devolve um valor para o JIT não eliminar o trabalho
+    private final Map<String, Supplier<LongSupplier>> cases = new LinkedHashMap<>();
+    private GameServer server;
+
+    // Chamado pelo bench.RpgBenchmark (pacote nomeado não enxerga o pacote padrão)
+    public static LongSupplier operation(String name) {
+        Benchmarks benchmarks = new Benchmarks();
+        benchmarks.registerCases();
+        Supplier<LongSupplier> setup = benchmarks.cases.get(name);
+        if (setup == null) {
+            throw new IllegalArgumentException("Caso desconhecido: " + name);
+        }
+        return setup.get();
+    }
+
+    // Casos --------------------------------------------------------------------
+
+    private void registerCases() {
+        for (int size : new int[] {2, 4, 6}) {
+            cases.put("turn.players" + size, () -> turnResolution(size));
+        }
+
+        cases.put("state.full6", () -> {
+            PlayerRegistry room = newRoom(6);
+            StringBuilder stateBuffer = new StringBuilder(512);
+            return () -> {
+                stateBuffer.setLength(0);
+                stateBuffer.append("PLAYERS_UPDATE");
+                room.appendFullState(stateBuffer, true);
+                return stateBuffer.toString().length();
+            };
+        });
+        cases.put("state.delta6", () -> {
+            PlayerRegistry room = newRoom(6);
+            StringBuilder stateBuffer = new StringBuilder(512);
+            Player[] seats = room.snapshot().toArray(new Player[0]);
+            int[] round = {0};
+            return () -> {
+                // Metade dos jogadores muda HP a cada turno, como numa troca de ataques
+                int r = ++round[0];
+                for (int i = r & 1; i < seats.length; i += 2) {
+                    seats[i].setHp(50 + (r & 31));
+                }
+                stateBuffer.setLength(0);
+                stateBuffer.append("PLAYERS_DELTA");
+                room.appendDelta(stateBuffer);
+                return stateBuffer.toString().length();
+            };
+        });
+
+        cases.put("parse.server.text", () -> serverParse(false));
+        cases.put("parse.server.binary", () -> serverParse(true));
+        cases.put("parse.client.text", () -> clientParse(false));
+        cases.put("parse.client.binary", () -> clientParse(true));
+        cases.put("codec.encode.players6", () -> {
+            String update = playersUpdate();
+            return () -> BinaryCodec.encode(update).length;
+        });
+
+        cases.put("broadcast.fanout6", () -> fanout(playersUpdate(), 6));
+        cases.put("broadcast.fanout64", () -> fanout(playersUpdate(), 64));
+    }
+
+    private static PlayerRegistry newRoom(int size) {
+        SkillCatalog.ClassInfo[] classes = SkillCatalog.get().getClasses();
+        PlayerRegistry players = new PlayerRegistry(GameRoom.MAX_PLAYERS);
+        for (int i = 0; i < size; i++) {
+            players.add(new Player("Player" + i, classes[i % classes.length]));
+        }
+        return players;
+    }
+
+    private static String playersUpdate() {
+        StringBuilder update = new StringBuilder("PLAYERS_UPDATE");
+        newRoom(6).appendFullState(update, false);
+        return update.toString();
+    }
+
+    // Servidor sem rede: só avisos no log, sem batimento, diário ou fotos. O agendador
+    // descarta as tarefas: o START_TURN e o prazo que viriam depois ficam fora da medida
+    private GameServer server() {
+        if (server == null) {
+            ServerConfig config = new ServerConfig();
+            config.headless = true;
+            config.logLevel = ServerLog.Level.WARN;
+            config.logFile = "";
+            config.pingIntervalSeconds = 0;
+            config.idleTimeoutSeconds = 0;
+            config.seed = 42L;
+            server = new GameServer(config, task -> {});
+        }
+        return server;
+    }
+
+    // Sala criada e ocupada pelas mensagens do protocolo, com a partida já iniciada
+    private ClientHandler[] startedRoom(String name, int size) {
+        GameServer server = server();
+        String[] classNames = SkillCatalog.get().getClassNames();
+        ClientHandler[] seats = new ClientHandler[size];
+        for (int i = 0; i < size; i++) {
+            seats[i] = new ClientHandler(server);
+            if (i == 0) {
+                seats[i].onMessage("CREATE_ROOM|" + name);
+            }
+            seats[i].onMessage("JOIN_ROOM|" + name + "|" + name + "p" + i + "|" + classNames[i % classNames.length]);
+        }
+        if (!server.getRoom(name).startGame()) {
+            throw new IllegalStateException("Partida de " + name + " não iniciou");
+        }
+        for (ClientHandler seat : seats) {
+            drain(seat);
+        }
+        return seats;
+    }
+
+    // O que o escritor do cliente faria: cada mensagem da fila codificada para o socket
+    private static long drain(ClientHandler handler) {
+        long bytes = 0;
+        OutboundMessage message;
+        while ((message = handler.getOutbound().poll()) != null) {
+            bytes += handler.encode(message).length;
+        }
+        return bytes;
+    }
+
+    // Um turno inteiro pelo caminho do servidor: a ACTION de cada jogador vivo entra em
+    // ClientHandler.onMessage, a última resolve o turno em GameRoom.processTurnActions e
+    // as filas do broadcast são esvaziadas. Partida que acaba recomeça na operação seguinte.
+    private LongSupplier turnResolution(int size) {
+        String name = "turn" + size;
+        ClientHandler[] seats = startedRoom(name, size);
+        GameRoom room = server().getRoom(name);
+        java.util.List<Player> players = room.getPlayersSnapshot();
+        StringBuilder action = new StringBuilder(64);
+        return () -> {
+            if (!room.isBattleInProgress()) {
+                room.startGame();
+            }
+            int turn = room.getCurrentTurnNumber();
+            for (int i = 0; i < size; i++) {
+                Player self = players.get(i);
+                if (self.isAlive) {
+                    seats[i].onMessage(chooseAction(self, players, action));
+                }
+            }
+            if (room.isBattleInProgress() && room.getCurrentTurnNumber() == turn) {
+                throw new IllegalStateException("Turno " + turn + " de " + name + " não foi resolvido");
+            }
+            long bytes = 0;
+            for (ClientHandler seat : seats) {
+                bytes += drain(seat);
+            }
+            return bytes;
+        };
+    }
+
+    // Como os robôs do LoadGenerator: paralisado manda "paralyzed"; senão a primeira
+    // habilidade que cabe no MP contra o próximo inimigo vivo; sem MP ou alvo, defende
+    private static String chooseAction(Player self, java.util.List<Player> players, StringBuilder out) {
+        out.setLength(0);
+        out.append("ACTION|").append(self.name).append('|');
+        if (self.hasAnyStatusEffect(StatusEffect.PARALYZING)) {
+            return out.append("paralyzed| | ").toString();
+        }
+        Player target = null;
+        int seat = players.indexOf(self);
+        for (int k = 1; k < players.size() && target == null; k++) {
+            Player candidate = players.get((seat + k) % players.size());
+            if (candidate.isAlive) {
+                target = candidate;
+            }
+        }
+        SkillInfo skill = null;
+        for (SkillInfo candidate : self.classInfo.skills) {
+            if (candidate.mpCost <= self.mp) {
+                skill = candidate;
+                break;
+            }
+        }
+        if (target == null || skill == null) {
+            return out.append("defense| | ").toString();
+        }
+        return out.append("attack|").append(target.name).append('|').append(skill.id).toString();
+    }
+
+    // ACTION do primeiro jogador de uma sala de 2, dos bytes recebidos em diante como no
+    // NIO: leitura, despacho no ClientHandler, validação e aceitação na sala (o turno
+    // espera o outro jogador). A ação é desfeita no fim para a próxima ser aceita de novo.
+    private LongSupplier serverParse(boolean binary) {
+        String name = binary ? "parseb" : "parset";
+        ClientHandler[] seats = startedRoom(name, 2);
+        GameRoom room = server().getRoom(name);
+        java.util.List<Player> players = room.getPlayersSnapshot();
+        String playerName = players.get(0).name;
+        String action = chooseAction(players.get(0), players, new StringBuilder());
+        ClientHandler handler = seats[0];
+        if (binary) {
+            byte[] frame = BinaryCodec.encode(action);
+            // Prefixo de tamanho de 1 ou 2 bytes (varint)
+            int offset = (frame[0] & 0x80) == 0 ? 1 : 2;
+            return () -> {
+                try {
+                    String[] parts = BinaryCodec.decode(frame, offset, frame.length - offset);
+                    handler.onFrame(parts);
+                    accepted(room, playerName);
+                    return parts.length;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+        byte[] line = action.getBytes(StandardCharsets.UTF_8);
+        return () -> {
+            String message = new String(line, 0, line.length, StandardCharsets.UTF_8);
+            handler.onMessage(message);
+            accepted(room, playerName);
+            return message.length();
+        };
+    }
+
+    // Uma ação recusada mediria só o retorno antecipado da validação
+    private static void accepted(GameRoom room, String playerName) {
+        if (!room.withdrawAction(playerName)) {
+            throw new IllegalStateException("ACTION de " + playerName + " não foi aceita");
+        }
+    }
+
+    // PLAYERS_UPDATE de 6 jogadores lido do stream e aplicado pelo GameClient, sem conexão
+    private static LongSupplier clientParse(boolean binary) {
+        String update = playersUpdate();
+        byte[] bytes = binary ? BinaryCodec.encode(update) : (update + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream input = new ByteArrayInputStream(bytes);
+        GameClient client = new GameClient(new GameClient.Listener() {}, Runnable::run, false);
+        return () -> {
+            try {
+                input.reset();
+                String[] parts = GameClient.readMessage(input, binary);
+                client.processServerMessage(parts);
+                return parts.length;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // Uma mensagem para N clientes: codifica uma vez, enfileira em todos e esvazia as filas
+    private static LongSupplier fanout(String message, int recipients) {
+        OutboundQueue[] queues = new OutboundQueue[recipients];
+        for (int i = 0; i < recipients; i++) {
+            queues[i] = new OutboundQueue(1024, ServerConfig.SlowClientPolicy.DROP, () -> null, () -> {}, () -> {});
+        }
+        return () -> {
+            OutboundMessage outbound = new OutboundMessage(message);
+            for (OutboundQueue queue : queues) {
+                queue.offer(outbound);
+            }
+            long bytes = 0;
+            for (OutboundQueue queue : queues) {
+                bytes += queue.poll().bytes(false).length;
+            }
+            return bytes;
+        };
+    }
+
+    // Baseline -----------------------------------------------------------------
+
+    // Resultado do JMH em CSV: caso (parâmetro name) -> {score, erro}; as linhas do
+    // -prof gc (":gc.alloc.rate.norm", bytes por operação) entram com o sufixo no nome
+    static Map<String, double[]> readResults(Path path) throws IOException {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        java.util.List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] fields = line.replace("\"", "").split(",", -1);
+            if (fields.length < 8) {
+                throw new IOException("Linha inválida em " + path + " (use -rf csv): " + line);
+            }
+            String benchmark = fields[0];
+            int secondary = benchmark.indexOf(':');
+            if (secondary >= 0 && !benchmark.endsWith(GC_ALLOC)) continue;
+            String name = fields[7] + (secondary >= 0 ? GC_ALLOC : "");
+            double error = fields[5].equals("NaN") ? 0 : Double.parseDouble(fields[5]);
+            results.put(name, new double[] {Double.parseDouble(fields[4]), error});
+        }
+        return results;
+    }
+
+    // Os números só valem na máquina que os mediu: o baseline é local (bench-local.csv)
+    public static void main(String[] args) throws IOException {
+        java.util.List<String> files = new ArrayList<>();
+        double tolerance = 0.10;
+        for (String arg : args) {
+            if (arg.startsWith("--tolerance=")) {
+                tolerance = Double.parseDouble(arg.substring("--tolerance=".length()));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            throw new IllegalArgumentException("Uso: java Benchmarks baseline.csv atual.csv [--tolerance=0.1]");
+        }
+        Map<String, double[]> baseline = readResults(Paths.get(files.get(0)));
+        Map<String, double[]> current = readResults(Paths.get(files.get(1)));
+
+        System.out.printf("%-40s %14s %14s %9s%n", "Caso", "baseline", "atual", "variação");
+        int regressions = 0;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            String name = entry.getKey();
+            double[] now = entry.getValue();
+            double[] reference = baseline.get(name);
+            if (reference == null) continue;
+            boolean regression;
+            if (name.endsWith(GC_ALLOC)) {
+                // Alguns bytes de folga: a alocação medida tem granularidade de TLAB
+                regression = now[0] > reference[0] * (1 + tolerance) + 16;
+            } else {
+                // ops/s: só conta quando os intervalos de erro não se encontram, além da tolerância
+                regression = now[0] + now[1] < (reference[0] - reference[1]) * (1 - tolerance);
+            }
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-40s %,14.1f %,14.1f %+8.1f%%%s%n", name, reference[0], now[0],
+                    (now[0] / reference[0] - 1) * 100, regression ? "  REGRESSÃO" : "");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regressão(ões) além da tolerância de " + Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Protocolo binário compacto, negociado com HELLO|bin|versão no início da conexão.
+// Quadro: tamanho (varint) + opcode (1 byte) + campos. Cada campo do texto ("|")
+// vira uma lista de subcampos (","), e cada subcampo leva um byte de tipo:
+//   0x00-0x7F inteiro pequeno no próprio byte, INT varint zigzag, TRUE/FALSE,
+//   DICT índice do vocabulário fixo, PAIR chave=valor com chave do vocabulário, STR UTF-8.
+// A decodificação devolve os mesmos campos do protocolo texto, sem split nem parse.
+public class BinaryCodec {
+    static final int VERSION = 1;
+    static final int MAX_FRAME_SIZE = 64 * 1024;
+
+    private static final int TAG_STR = 0x80;
+    private static final int TAG_INT = 0x81;
+    private static final int TAG_FALSE = 0x82;
+    private static final int TAG_TRUE = 0x83;
+    private static final int TAG_DICT = 0x84;
+    private static final int TAG_PAIR = 0x85;
+    private static final int OPCODE_UNKNOWN = 0xFF;
+
+    // A ordem das listas faz parte do protocolo: só acrescentar no fim e subir VERSION
+    private static final String[] OPCODES = {
+        "JOIN", "CREATE_ROOM", "JOIN_ROOM", "LIST_ROOMS", "ACTION", "RESYNC",
+        "JOIN_SUCCESS", "JOIN_REJECTED", "ROOM_CREATED", "ROOM_REJECTED", "ROOM_LIST",
+        "LOBBY_UPDATE", "COUNTDOWN", "GAME_START", "PLAYERS_INFO", "PLAYERS_UPDATE",
+        "PLAYERS_DELTA", "START_TURN", "TURN_RESULT", "GAME_END"
+    };
+
+    private static final String[] DICTIONARY = {
+        "Mage", "Warrior", "Assassin", "Archer", "Necromancer", "Lancer",
+        "attack", "defense", "item", "paralyzed", "skip",
+        "Nenhum", "Empate", "aguardando", "em_batalha", "hp", "mp", "alive", "fx",
+        "Poção de Vida", "Poção de Mana",
+        "Bola de Fogo", "Raio Gélido", "Meteoro Congelante",
+        "Golpe de Espada", "Investida Furiosa", "Berserker",
+        "Punhalada", "Ataque Furtivo", "Lâmina Venenosa",
+        "Tiro Certeiro", "Chuva de Flechas", "Flecha Perfurante",
+        "Toque Sombrio", "Raio Necrótico", "Drenar Vida",
+        "Investida da Lança", "Giro Mortal", "Perfuração Atordoante"
+    };
+
+    private static final Map<String, Integer> OPCODE_INDEX = indexOf(OPCODES);
+    private static final Map<String, Integer> DICTIONARY_INDEX = indexOf(DICTIONARY);
+
+    private static Map<String, Integer> indexOf(String[] values) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            index.put(values[i], i);
+        }
+        return index;
+    }
+
+    // Mensagem texto (sem \n) -> quadro binário completo, com o tamanho na frente
+    static byte[] encode(String message) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        String[] fields = message.split("\\|", -1);
+
+        Integer opcode = OPCODE_INDEX.get(fields[0]);
+        if (opcode != null) {
+            payload.write(opcode);
+        } else {
+            payload.write(OPCODE_UNKNOWN);
+            writeString(payload, fields[0]);
+        }
+
+        writeVarint(payload, fields.length - 1);
+        for (int i = 1; i < fields.length; i++) {
+            String[] subfields = fields[i].split(",", -1);
+            writeVarint(payload, subfields.length);
+            for (String subfield : subfields) {
+                writeSubfield(payload, subfield);
+            }
+        }
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.size() + 3);
+        writeVarint(frame, payload.size());
+        frame.write(payload.toByteArray(), 0, payload.size());
+        return frame.toByteArray();
+    }
+
+    private static void writeSubfield(ByteArrayOutputStream out, String value) {
+        Integer word = DICTIONARY_INDEX.get(value);
+        if (word != null) {
+            out.write(TAG_DICT);
+            writeVarint(out, word);
+            return;
+        }
+        if (value.equals("true")) {
+            out.write(TAG_TRUE);
+            return;
+        }
+        if (value.equals("false")) {
+            out.write(TAG_FALSE);
+            return;
+        }
+        if (isCanonicalInt(value)) {
+            int number = Integer.parseInt(value);
+            if (number >= 0 && number < 0x80) {
+                out.write(number);
+            } else {
+                out.write(TAG_INT);
+                writeVarint(out, (number << 1) ^ (number >> 31));
+            }
+            return;
+        }
+        int eq = value.indexOf('=');
+        if (eq > 0) {
+            Integer key = DICTIONARY_INDEX.get(value.substring(0, eq));
+            if (key != null) {
+                out.write(TAG_PAIR);
+                writeVarint(out, key);
+                writeSubfield(out, value.substring(eq + 1));
+                return;
+            }
+        }
+        out.write(TAG_STR);
+        writeString(out, value);
+    }
+
+    // Só inteiros que voltam idênticos como texto ("7", "-12"; não "007" nem "+1")
+    private static boolean isCanonicalInt(String value) {
+        int length = value.length();
+        if (length == 0 || length > 10) return false;
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        if (start == length) return false;
+        if (value.charAt(start) == '0' && length > start + 1) return false;
+        if (start == 1 && length == 2 && value.charAt(1) == '0') return false;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        long number = Long.parseLong(value);
+        return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // Payload (sem o prefixo de tamanho) -> campos iguais aos do split("\\|") do texto
+    static String[] decode(byte[] data, int offset, int length) throws IOException {
+        Reader reader = new Reader(data, offset, offset + length);
+        int opcode = reader.readByte();
+        String command;
+        if (opcode == OPCODE_UNKNOWN) {
+            command = reader.readString();
+        } else if (opcode < OPCODES.length) {
+            command = OPCODES[opcode];
+        } else {
+            throw new IOException("Opcode inválido: " + opcode);
+        }
+
+        // Cada campo ocupa ao menos um byte: contagens maiores que o resto do quadro são lixo
+        int fieldCount = reader.readCount();
+        String[] parts = new String[fieldCount + 1];
+        parts[0] = command;
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i <= fieldCount; i++) {
+            field.setLength(0);
+            int subfieldCount = reader.readCount();
+            for (int s = 0; s < subfieldCount; s++) {
+                if (s > 0) field.append(',');
+                reader.readSubfield(field);
+            }
+            parts[i] = field.toString();
+        }
+        return parts;
+    }
+
+    // Lê um quadro do stream bloqueante; null no fim da conexão
+    static String[] readFrame(InputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) return null;
+                throw new EOFException();
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            if (shift > 21) throw new IOException("Tamanho de quadro inválido");
+        }
+        if (length > MAX_FRAME_SIZE) {
+            throw new IOException("Quadro muito grande: " + length);
+        }
+
+        byte[] payload = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(payload, read, length - read);
+            if (n < 0) throw new EOFException();
+            read += n;
+        }
+        return decode(payload, 0, length);
+    }
+
+    // Lê uma linha de texto UTF-8 (sem \r\n) byte a byte do stream; null no fim da conexão
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (line.size() == 0) return null;
+                break;
+            }
+            if (line.size() == MAX_FRAME_SIZE) {
+                throw new IOException("Linha muito longa");
+            }
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+        private final int limit;
+
+        Reader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int readByte() throws IOException {
+            if (position >= limit) throw new EOFException("Quadro truncado");
+            return data[position++] & 0xFF;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Varint inválido");
+        }
+
+        // Contagem de campos/subcampos, limitada ao que ainda resta no quadro
+        int readCount() throws IOException {
+            int count = readVarint();
+            if (count < 0 || count > limit - position) throw new IOException("Contagem inválida: " + count);
+            return count;
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            if (length < 0 || position + length > limit) throw new EOFException("Quadro truncado");
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readWord() throws IOException {
+            int index = readVarint();
+            if (index < 0 || index >= DICTIONARY.length) throw new IOException("Palavra inválida: " + index);
+            return DICTIONARY[index];
+        }
+
+        void readSubfield(StringBuilder out) throws IOException {
+            int tag = readByte();
+            // Pares encadeados (a=b=c) em laço: um quadro hostil não estoura a pilha
+            while (tag == TAG_PAIR) {
+                out.append(readWord()).append('=');
+                tag = readByte();
+            }
+            if (tag < 0x80) {
+                out.append(tag);
+                return;
+            }
+            switch (tag) {
+                case TAG_STR: out.append(readString()); break;
+                case TAG_INT: {
+                    int raw = readVarint();
+                    out.append((raw >>> 1) ^ -(raw & 1));
+                    break;
+                }
+                case TAG_FALSE: out.append("false"); break;
+                case TAG_TRUE: out.append("true"); break;
+                case TAG_DICT: out.append(readWord()); break;
+                default:
+                    throw new IOException("Tipo de campo inválido: " + tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,623 @@
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.TimeUnit;
+
+// Conexão de um cliente: interpreta o protocolo e encaminha para a sala
+public class ClientHandler implements Runnable {
+    private final GameServer server;
+    private Socket socket;
+    private InputStream in;
+    private OutputStream rawOut;
+    // Mensagens enfileiradas por quem transmite e escritas pelo escritor do cliente
+    private final OutboundQueue outbound;
+    // Protocolo binário negociado com HELLO (texto até lá); cada sentido troca no seu ponto
+    private volatile boolean binaryInput = false;
+    private boolean binaryOutput = false;
+    private boolean firstMessage = true;
+    private NioTransport.Connection connection;
+    // volatile: o Matchmaker coloca o jogador na sala fora da thread de leitura
+    private volatile String playerName;
+    private volatile GameRoom room;
+    // Lugar na fila de partidas (null fora da fila)
+    private volatile Matchmaker.Ticket ticket;
+    // Sala assistida com SPECTATE (null quando não assiste)
+    private volatile SpectatorFeed spectating;
+    private volatile boolean closed = false;
+    // Batimento: só a varredura do servidor envia PING e só o leitor trata o PONG
+    private volatile long lastReceivedAt = System.nanoTime();
+    private volatile long pingSentAt = lastReceivedAt;
+    private volatile int pingSeq = 0;
+    private volatile boolean evicted = false;
+    // RTT do PING até o PONG (inclui a fila de saída do cliente), em microssegundos
+    private volatile long lastRttMicros = -1;
+    private volatile long smoothedRttMicros = -1;
+    private volatile long maxRttMicros = -1;
+
+    public ClientHandler(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+        this.outbound = newOutboundQueue();
+        try {
+            in = new BufferedInputStream(socket.getInputStream());
+            rawOut = new BufferedOutputStream(socket.getOutputStream());
+        } catch (IOException e) {
+            server.logWarn("Erro ao configurar cliente: " + e.getMessage());
+        }
+    }
+
+    // Modo NIO: as linhas chegam pelo seletor em onMessage
+    ClientHandler(GameServer server, NioTransport.Connection connection) {
+        this.server = server;
+        this.connection = connection;
+        this.outbound = newOutboundQueue();
+    }
+
+    // Sem transporte (Benchmarks): as mensagens ficam na fila de saída até alguém esvaziar
+    ClientHandler(GameServer server) {
+        this.server = server;
+        this.outbound = newOutboundQueue();
+    }
+
+    private OutboundQueue newOutboundQueue() {
+        return new OutboundQueue(server.config.outboundQueueLimit, server.config.slowClientPolicy,
+                this::buildKeyframe, this::dropSlowClient, server.metrics.spectatorSkips::increment);
+    }
+
+    // Estado completo para a fila cheia: o da sala do jogador ou o compartilhado dos espectadores
+    private OutboundMessage buildKeyframe() {
+        GameRoom current = room;
+        if (current != null) {
+            String keyframe = current.buildKeyframe();
+            return keyframe != null ? new OutboundMessage(keyframe) : null;
+        }
+        SpectatorFeed feed = spectating;
+        return feed != null ? feed.keyframe() : null;
+    }
+
+    public boolean sendMessage(String message) {
+        return sendMessage(new OutboundMessage(message));
+    }
+
+    // Só enfileira: um socket lento não segura o broadcast da sala
+    boolean sendMessage(OutboundMessage message) {
+        if (!outbound.offer(message)) {
+            return false;
+        }
+        flushOutbound();
+        return true;
+    }
+
+    // Enfileira sem acordar o seletor; o SpectatorFeed chama flushOutbound() uma vez por lote
+    boolean offer(OutboundMessage message) {
+        return outbound.offer(message);
+    }
+
+    void flushOutbound() {
+        if (connection != null) {
+            connection.flush();
+        }
+    }
+
+    String getPlayerName() {
+        return playerName;
+    }
+
+    GameRoom getRoom() {
+        return room;
+    }
+
+    // -1 enquanto nenhum PONG chegou
+    long getLastRttMicros() {
+        return lastRttMicros;
+    }
+
+    long getSmoothedRttMicros() {
+        return smoothedRttMicros;
+    }
+
+    long getMaxRttMicros() {
+        return maxRttMicros;
+    }
+
+    int getOutboundDepth() {
+        return outbound.size();
+    }
+
+    int getOutboundPeak() {
+        return outbound.getPeakDepth();
+    }
+
+    OutboundQueue getOutbound() {
+        return outbound;
+    }
+
+    // Só o escritor chama: o HELLO_OK|bin ainda sai em texto, o que vem depois em binário
+    byte[] encode(OutboundMessage message) {
+        byte[] bytes = message.bytes(binaryOutput);
+        server.metrics.recordSent(bytes.length);
+        if (message.startsWith("HELLO_OK|bin")) {
+            binaryOutput = true;
+        }
+        return bytes;
+    }
+
+    // Escritor do modo bloqueante: esvazia a fila e só faz flush quando ela fica vazia
+    void writeLoop() {
+        try {
+            OutboundMessage message;
+            while ((message = outbound.take()) != null) {
+                rawOut.write(encode(message));
+                if (outbound.size() == 0) {
+                    rawOut.flush();
+                }
+            }
+        } catch (IOException e) {
+            closeSocket();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Fila cheia com a política DROP (ou nada mais a juntar com COALESCE)
+    private void dropSlowClient() {
+        server.metrics.slowClientDrops.increment();
+        server.logWarn("Cliente lento desconectado: " + (playerName != null ? playerName : "Desconhecido") +
+                  " (" + server.config.outboundQueueLimit + " mensagens pendentes)");
+        if (connection != null) {
+            // Fecha fora da thread que está transmitindo para a sala
+            server.getScheduler().schedule(connection::close, 0, TimeUnit.MILLISECONDS);
+        } else {
+            closeSocket();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                String[] parts;
+                if (binaryInput) {
+                    parts = BinaryCodec.readFrame(in);
+                } else {
+                    String inputLine = BinaryCodec.readLine(in);
+                    parts = inputLine != null ? inputLine.split("\\|", -1) : null;
+                }
+                if (parts == null) break;
+                processClientMessage(parts);
+            }
+        } catch (SocketTimeoutException e) {
+            // Reserva do SO_TIMEOUT: a varredura não chegou a tempo
+            evictIdle();
+        } catch (IOException e) {
+            server.logMessage("Cliente desconectado: " + (playerName != null ? playerName : "Desconhecido"));
+        } catch (RuntimeException e) {
+            server.logError("Erro ao tratar mensagem de " + (playerName != null ? playerName : "Desconhecido") + ": " + e);
+        } finally {
+            disconnect();
+        }
+    }
+
+    void onMessage(String message) {
+        processClientMessage(message.split("\\|", -1));
+    }
+
+    void onFrame(String[] parts) {
+        processClientMessage(parts);
+    }
+
+    void onClosed() {
+        server.logMessage("Cliente desconectado: " + (playerName != null ? playerName : "Desconhecido"));
+        disconnect();
+    }
+
+    private void processClientMessage(String[] parts) {
+        server.metrics.messagesIn.increment();
+        lastReceivedAt = System.nanoTime();
+        String command = parts[0];
+        boolean first = firstMessage;
+        firstMessage = false;
+
+        switch (command) {
+            case "HELLO":
+                if (first) {
+                    handleHello(parts);
+                }
+                break;
+
+            case "JOIN":
+                if (parts.length >= 3) {
+                    String name = parts[1];
+                    String playerClass = parts[2];
+                    handlePlayerJoin(GameServer.DEFAULT_ROOM, name, playerClass);
+                }
+                break;
+
+            case "CREATE_ROOM":
+                if (parts.length >= 2) {
+                    handleCreateRoom(parts[1].trim(), parts.length >= 3 ? parts[2].trim() : "");
+                }
+                break;
+
+            case "JOIN_ROOM":
+                if (parts.length >= 4) {
+                    String roomName = parts[1].trim();
+                    String name = parts[2];
+                    String playerClass = parts[3];
+                    handlePlayerJoin(roomName, name, playerClass);
+                }
+                break;
+
+            case "QUEUE":
+                if (parts.length >= 3) {
+                    handleQueue(parts[1], parts[2]);
+                }
+                break;
+
+            case "LEAVE_QUEUE":
+                Matchmaker.Ticket queued = ticket;
+                if (queued != null && server.matchmaker.cancel(queued)) {
+                    ticket = null;
+                    sendMessage("QUEUE_LEFT");
+                    server.fireStateChanged();
+                }
+                break;
+
+            case "SPECTATE":
+                if (parts.length >= 2) {
+                    handleSpectate(parts[1].trim());
+                }
+                break;
+
+            case "LEAVE_SPECTATE":
+                if (stopSpectating()) {
+                    sendMessage("SPECTATE_LEFT");
+                }
+                break;
+
+            case "RESUME":
+                if (parts.length >= 2) {
+                    handleResume(parts[1].trim());
+                }
+                break;
+
+            case "LIST_ROOMS":
+                sendMessage(server.getRoomList());
+                break;
+
+            case "PING":
+                sendMessage(parts.length >= 2 ? "PONG|" + parts[1] : "PONG");
+                break;
+
+            case "PONG":
+                if (parts.length >= 2) {
+                    handlePong(parts[1]);
+                }
+                break;
+
+            case "RESYNC":
+                if (room != null) {
+                    room.sendKeyframeTo(this);
+                } else if (spectating != null) {
+                    OutboundMessage keyframe = spectating.keyframe();
+                    if (keyframe != null) {
+                        sendMessage(keyframe);
+                    }
+                }
+                break;
+
+            case "ACTION":
+                if (parts.length >= 5) {
+                    String name = parts[1];
+                    String actionType = parts[2];
+                    String target = parts[3].trim();
+                    String skill = parts[4].trim();
+                    handlePlayerAction(name, actionType, target, skill);
+                }
+                break;
+
+            default:
+                server.logWarn("Comando desconhecido: " + command + " de " + 
+                          (playerName != null ? playerName : "cliente desconhecido"));
+                break;
+        }
+    }
+
+    // Varredura do servidor (uma por segundo para todas as conexões)
+    void heartbeat(long now) {
+        int idleTimeout = server.config.idleTimeoutSeconds;
+        if (idleTimeout > 0 && now - lastReceivedAt > TimeUnit.SECONDS.toNanos(idleTimeout)) {
+            evictIdle();
+            return;
+        }
+        int interval = server.config.pingIntervalSeconds;
+        if (interval > 0 && now - pingSentAt >= TimeUnit.SECONDS.toNanos(interval)) {
+            pingSentAt = now;
+            sendMessage("PING|" + ++pingSeq);
+        }
+    }
+
+    // Só o PONG do último PING conta; um atrasado depois do seguinte é ignorado
+    private void handlePong(String seq) {
+        if (!seq.equals(String.valueOf(pingSeq))) {
+            return;
+        }
+        long micros = (System.nanoTime() - pingSentAt) / 1000;
+        lastRttMicros = micros;
+        // Média móvel com peso 1/8, como o SRTT do TCP
+        smoothedRttMicros = smoothedRttMicros < 0 ? micros : smoothedRttMicros + (micros - smoothedRttMicros) / 8;
+        maxRttMicros = Math.max(maxRttMicros, micros);
+        GameRoom current = room;
+        if (current != null) {
+            current.metrics.recordRtt(micros);
+        } else {
+            server.metrics.rtt.record(micros);
+        }
+    }
+
+    // Nada recebido (nem PONG) por --idle-timeout: conexão meio aberta ou cliente travado
+    private void evictIdle() {
+        if (evicted) {
+            return;
+        }
+        evicted = true;
+        server.metrics.idleEvictions.increment();
+        server.logWarn("Cliente inativo desconectado: " + (playerName != null ? playerName : "Desconhecido") +
+                  " (nada recebido em " + server.config.idleTimeoutSeconds + " s)");
+        if (connection != null) {
+            connection.close();
+        } else {
+            closeSocket();
+        }
+    }
+
+    // HELLO|bin|versão: responde em texto e troca os dois sentidos para o binário
+    private void handleHello(String[] parts) {
+        boolean accept = parts.length >= 3 && parts[1].equals("bin")
+                && parts[2].equals(String.valueOf(BinaryCodec.VERSION));
+        if (!accept) {
+            sendMessage("HELLO_OK|text");
+            return;
+        }
+
+        sendMessage("HELLO_OK|bin|" + BinaryCodec.VERSION);
+        if (connection != null) {
+            connection.setBinary(true);
+        } else {
+            binaryInput = true;
+        }
+    }
+
+    private void handleCreateRoom(String roomName, String turnTimeout) {
+        if (roomName.isEmpty() || roomName.contains(",")) {
+            sendMessage("ROOM_REJECTED|Nome de sala inválido");
+            return;
+        }
+
+        int turnTimeoutSeconds = server.config.turnTimeoutSeconds;
+        if (!turnTimeout.isEmpty()) {
+            try {
+                turnTimeoutSeconds = Integer.parseInt(turnTimeout);
+            } catch (NumberFormatException e) {
+                turnTimeoutSeconds = -1;
+            }
+            if (turnTimeoutSeconds < 5 || turnTimeoutSeconds > 600) {
+                sendMessage("ROOM_REJECTED|Tempo de turno inválido (5 a 600 segundos)");
+                return;
+            }
+        }
+
+        if (server.createRoom(roomName, turnTimeoutSeconds) == null) {
+            sendMessage("ROOM_REJECTED|Sala já existe");
+            return;
+        }
+
+        sendMessage("ROOM_CREATED|" + roomName);
+    }
+
+    private void handlePlayerJoin(String roomName, String name, String playerClass) {
+        if (room != null) {
+            sendMessage("JOIN_REJECTED|Já está em uma sala");
+            return;
+        }
+        if (ticket != null) {
+            sendMessage("JOIN_REJECTED|Já está na fila de partidas");
+            return;
+        }
+
+        GameRoom targetRoom = server.getRoom(roomName);
+        if (targetRoom == null) {
+            sendMessage("JOIN_REJECTED|Sala não existe");
+            return;
+        }
+
+        // Quem assistia o lobby pode entrar nele (para de assistir antes)
+        stopSpectating();
+        String rejection = targetRoom.join(this, name, SkillCatalog.get().getClassInfo(playerClass));
+        if (rejection != null) {
+            sendMessage("JOIN_REJECTED|" + rejection);
+            return;
+        }
+
+        this.playerName = name;
+        this.room = targetRoom;
+
+        String token = targetRoom.getResumeToken(name);
+        sendMessage("JOIN_SUCCESS|" + (token != null ? token : ""));
+
+        targetRoom.updateLobby();
+        server.fireStateChanged();
+        targetRoom.checkAutoStart();
+    }
+
+    // QUEUE|nome|classe: entra na fila de partidas; quem está no lobby de uma sala sai dela
+    private void handleQueue(String name, String playerClass) {
+        if (ticket != null) {
+            sendMessage("QUEUE_REJECTED|Já está na fila");
+            return;
+        }
+        if (name.trim().isEmpty()) {
+            sendMessage("QUEUE_REJECTED|Nome inválido");
+            return;
+        }
+        SkillCatalog.ClassInfo classInfo = SkillCatalog.get().getClassInfo(playerClass);
+        if (classInfo == null) {
+            sendMessage("QUEUE_REJECTED|Classe desconhecida");
+            return;
+        }
+        GameRoom current = room;
+        if (current != null) {
+            if (!current.leave(playerName, this)) {
+                sendMessage("QUEUE_REJECTED|Partida em andamento");
+                return;
+            }
+            room = null;
+            playerName = null;
+            server.removeRoomIfEmpty(current);
+        }
+
+        stopSpectating();
+        Matchmaker.Ticket queued = server.matchmaker.enqueue(this, name, classInfo);
+        if (queued == null) {
+            sendMessage("QUEUE_REJECTED|Nome já está na fila");
+            return;
+        }
+        ticket = queued;
+        sendMessage("QUEUED|" + server.matchmaker.getQueuedCount());
+        server.fireStateChanged();
+    }
+
+    // Chamado pelo Matchmaker depois do join na sala formada
+    void enterMatchedRoom(GameRoom matchedRoom, String name) {
+        ticket = null;
+        playerName = name;
+        room = matchedRoom;
+        sendMessage("MATCH_FOUND|" + matchedRoom.name);
+        String token = matchedRoom.getResumeToken(name);
+        sendMessage("JOIN_SUCCESS|" + (token != null ? token : ""));
+        if (closed) {
+            // Caiu enquanto a sala era formada e o disconnect() pode não ter visto a sala
+            matchedRoom.handleDisconnect(name, this);
+        }
+    }
+
+    // RESUME|ficha: esta conexão assume o jogador que caiu, sem passar pelo lobby
+    private void handleResume(String token) {
+        if (room != null || ticket != null) {
+            sendMessage("RESUME_REJECTED|Já está em uma sala");
+            return;
+        }
+
+        stopSpectating();
+        GameRoom targetRoom = server.findResumeRoom(token);
+        String name = targetRoom != null ? targetRoom.resume(this, token) : null;
+        if (name == null) {
+            sendMessage("RESUME_REJECTED|Sessão expirada");
+            return;
+        }
+
+        this.playerName = name;
+        this.room = targetRoom;
+        server.fireStateChanged();
+    }
+
+    // SPECTATE|sala: só recebe o que a sala transmite, pela fila de espectador (SKIP)
+    private void handleSpectate(String roomName) {
+        if (room != null || ticket != null) {
+            sendMessage("SPECTATE_REJECTED|Já está em uma sala");
+            return;
+        }
+        GameRoom targetRoom = server.getRoom(roomName);
+        if (targetRoom == null) {
+            sendMessage("SPECTATE_REJECTED|Sala não existe");
+            return;
+        }
+        if (spectating == targetRoom.spectators) {
+            sendMessage("SPECTATE_REJECTED|Já está assistindo esta sala");
+            return;
+        }
+
+        stopSpectating();
+        outbound.setPolicy(server.config.spectatorQueueLimit, ServerConfig.SlowClientPolicy.SKIP);
+        spectating = targetRoom.spectators;
+        String rejection = targetRoom.spectate(this);
+        if (rejection != null) {
+            spectating = null;
+            outbound.setPolicy(server.config.outboundQueueLimit, server.config.slowClientPolicy);
+            sendMessage("SPECTATE_REJECTED|" + rejection);
+            return;
+        }
+        server.logDebug("Espectador entrou na sala " + roomName);
+    }
+
+    // false se não assistia nenhuma sala
+    private boolean stopSpectating() {
+        SpectatorFeed feed = spectating;
+        if (feed == null) {
+            return false;
+        }
+        spectating = null;
+        feed.unsubscribe(this);
+        outbound.setPolicy(server.config.outboundQueueLimit, server.config.slowClientPolicy);
+        return true;
+    }
+
+    // Sala assistida foi removida; o SPECTATE_ENDED já está na fila
+    void spectateEnded(SpectatorFeed feed) {
+        if (spectating == feed) {
+            spectating = null;
+            outbound.setPolicy(server.config.outboundQueueLimit, server.config.slowClientPolicy);
+        }
+    }
+
+    // Outra conexão retomou a sessão: esta só fecha; o disconnect() vê que o jogador
+    // já tem outro dono na sala e não mexe nele
+    void replaced() {
+        if (connection != null) {
+            connection.close();
+        } else {
+            closeSocket();
+        }
+    }
+
+    private void handlePlayerAction(String playerName, String actionType, String target, String skill) {
+        if (room == null || !playerName.equals(this.playerName)) {
+            server.logDebug("Ação ignorada - jogador fora de sala: " + playerName);
+            return;
+        }
+
+        room.handlePlayerAction(playerName, actionType, target, skill);
+    }
+
+    private void disconnect() {
+        closed = true;
+        server.removeClient(this);
+
+        Matchmaker.Ticket queued = ticket;
+        if (queued != null && server.matchmaker.cancel(queued)) {
+            server.fireStateChanged();
+        }
+        stopSpectating();
+
+        if (playerName != null && room != null && room.handleDisconnect(playerName, this)) {
+            server.removeRoomIfEmpty(room);
+            server.fireStateChanged();
+
+            server.logMessage("Jogador desconectado: " + playerName);
+        }
+
+        outbound.close();
+        if (connection != null) {
+            connection.close();
+        }
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null && !socket.isClosed()) {
+                socket.close();
+            }
+        } catch (IOException e) {
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.*;
+
+// Regras de combate sem rede, travas nem log: a sala chama sob as próprias travas
+// e o simulador roda partidas inteiras em memória com as mesmas regras
+public class CombatRules {
+    private final PlayerRegistry players;
+    // Única fonte de sorte das regras (perfurante e qualquer rolagem futura); no
+    // servidor vem de turnRandom, então a partida se reproduz igual. SplittableRandom
+    // porque cada turno cria o seu e o simulador divide um por tarefa (split)
+    private final SplittableRandom random;
+
+    CombatRules(PlayerRegistry players, SplittableRandom random) {
+        this.players = players;
+        this.random = random;
+    }
+
+    // Sorte de um turno: depende só da semente do GAME_START e do número do turno, então
+    // uma partida restaurada de uma foto continua com a mesma sorte
+    static SplittableRandom turnRandom(long matchSeed, int turn) {
+        return new SplittableRandom(matchSeed + turn * 0x9E3779B97F4A7C15L);
+    }
+
+    // Maior agilidade age primeiro
+    static void sortByPriority(java.util.List<PlayerAction> actions) {
+        actions.sort((a, b) -> Integer.compare(b.priority, a.priority));
+    }
+
+    // Dano contínuo dos efeitos ativos; devolve o texto do que aconteceu ou null.
+    // Jogadores sem esses efeitos só custam um AND.
+    String processStatusEffects() {
+        StringBuilder effects = null;
+        for (Player player : players) {
+            if (!player.isAlive || !player.hasAnyStatusEffect(StatusEffect.DAMAGE_OVER_TIME)) continue;
+
+            for (long m = player.effectMask & StatusEffect.DAMAGE_OVER_TIME; m != 0; m &= m - 1) {
+                StatusEffect effect = StatusEffect.VALUES[Long.numberOfTrailingZeros(m)];
+                player.setHp(Math.max(0, player.hp - effect.damagePerTurn));
+                if (effects == null) effects = new StringBuilder();
+                effects.append(player.name).append(" sofreu ").append(effect.damagePerTurn)
+                       .append(" de dano por ").append(effect.damageName).append("! ");
+                // Como sempre foi: os outros efeitos ainda se aplicam (e aparecem no log) no mesmo turno
+                if (player.hp <= 0) {
+                    player.setAlive(false);
+                    effects.append(player.name).append(" foi derrotado pelo ").append(effect.damageName).append("! ");
+                }
+            }
+        }
+        return effects != null ? effects.toString() : null;
+    }
+
+    String executePlayerAction(PlayerAction action) {
+        StringBuilder result = new StringBuilder();
+        result.append(action.playerName).append(": ");
+
+        Player actor = players.get(action.playerName);
+        if (actor == null || !actor.isAlive) {
+            return result.append("não pode agir").toString();
+        }
+
+        switch (action.actionType) {
+            case "attack":
+                String targetName = action.target != null ? action.target.trim() : "";
+                if (targetName.isEmpty()) {
+                    result.append("tentou atacar mas não selecionou alvo");
+                    break;
+                }
+
+                Player target = players.get(targetName);
+                if (target != null && target.isAlive) {
+                    SkillInfo skillInfo = action.skillInfo;
+
+                    if (actor.mp < skillInfo.mpCost) {
+                        result.append("não tinha MP suficiente para usar ").append(skillInfo.name);
+                        break;
+                    }
+
+                    actor.setMp(Math.max(0, actor.mp - skillInfo.mpCost));
+
+                    int damage = skillInfo.baseDamage;
+
+                    // Dano na defesa
+                    if (target.isDefending) {
+                        damage = (int)(damage * 0.5);
+                        result.append("atacou ").append(target.name).append(" (defendendo) com ").append(skillInfo.name);
+                    } else {
+                        result.append("atacou ").append(target.name).append(" com ").append(skillInfo.name);
+                    }
+
+                    // Ignorar defesa
+                    if ("pierce".equals(skillInfo.specialEffect) && target.isDefending) {
+                        damage = skillInfo.baseDamage + random.nextInt(20);
+                        result.append(" (ataque perfurante ignorou defesa!)");
+                    }
+
+                    target.setHp(Math.max(0, target.hp - damage));
+                    result.append(" causando ").append(damage).append(" de dano");
+
+                    // Efeitos especiais
+                    if (skillInfo.specialEffect != null && !skillInfo.specialEffect.isEmpty()) {
+                        applySpecialEffect(actor, target, skillInfo, result);
+                    }
+
+                    if (target.hp <= 0) {
+                        target.setAlive(false);
+                        result.append(" - ").append(target.name).append(" foi derrotado!");
+                    }
+                } else {
+                    result.append("tentou atacar um alvo inválido");
+                }
+                break;
+
+            case "defense":
+                actor.isDefending = true;
+                result.append("assumiu posição defensiva");
+                break;
+
+            case "item":
+                String itemName = action.skill != null ? action.skill.trim() : "";
+                if (itemName.equals("Poção de Vida")) {
+                    int healAmount = Math.min(30, actor.maxHP - actor.hp);
+                    actor.setHp(actor.hp + healAmount);
+                    result.append("usou Poção de Vida e recuperou ").append(healAmount).append(" HP");
+                } else if (itemName.equals("Poção de Mana")) {
+                    int manaAmount = Math.min(15, actor.maxMP - actor.mp);
+                    actor.setMp(actor.mp + manaAmount);
+                    result.append("usou Poção de Mana e recuperou ").append(manaAmount).append(" MP");
+                } else {
+                    result.append("usou item desconhecido");
+                }
+                break;
+
+            case "paralyzed":
+                // Jogadores paralisados
+                if (actor.hasStatusEffect(StatusEffect.FROZEN)) {
+                    result.append("está congelado e não pode agir");
+                } else if (actor.hasStatusEffect(StatusEffect.STUNNED)) {
+                    result.append("está atordoado e não pode agir");
+                } else {
+                    result.append("estava paralisado mas o efeito passou");
+                }
+                break;
+
+            case "skip":
+                result.append("pulou o turno");
+                break;
+
+            default:
+                result.append("executou ação desconhecida: ").append(action.actionType);
+                break;
+        }
+
+        return result.toString();
+    }
+
+    private void applySpecialEffect(Player attacker, Player target, SkillInfo skillInfo, StringBuilder result) {
+        switch (skillInfo.specialEffect) {
+            case "freeze":
+                target.addStatusEffect(StatusEffect.FROZEN, 2);
+                result.append(" - ").append(target.name).append(" está CONGELADO por 2 turnos!");
+                break;
+            case "poison":
+                target.addStatusEffect(StatusEffect.POISON, 3);
+                result.append(" - ").append(target.name).append(" está ENVENENADO por 3 turnos!");
+                break;
+            case "burn":
+                target.addStatusEffect(StatusEffect.BLEEDING, 2);
+                result.append(" - ").append(target.name).append(" está SANGRANDO por 2 turnos!");
+                break;
+            case "stun":
+                target.addStatusEffect(StatusEffect.STUNNED, 2);
+                result.append(" - ").append(target.name).append(" está ATORDOADO por 2 turnos!");
+                break;
+            case "lifesteal":
+                int healAmount = Math.min(15, attacker.maxHP - attacker.hp);
+                attacker.setHp(attacker.hp + healAmount);
+                result.append(" - ").append(attacker.name).append(" drenou ").append(healAmount).append(" HP!");
+                break;
+            case "pierce":
+                break;
+        }
+    }
+
+    // Fim do turno: defesa acaba e os efeitos perdem um turno
+    void endTurn() {
+        for (Player player : players) {
+            player.isDefending = false;
+            player.decrementStatusEffects();
+        }
+    }
+}
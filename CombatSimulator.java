@@ -0,0 +1,287 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Partidas completas em memória com as regras do servidor (CombatRules), espalhadas
+// por todos os núcleos com fork/join, para balancear as classes sem playtest.
+// Exemplo: java CombatSimulator --matches=1000000 --players=2 --policy=greedy --seed=42
+public class CombatSimulator {
+    static final int MAX_TURNS = 200;
+    private static final int LEAF_MATCHES = 20_000;
+
+    private final ActionPolicy policy;
+    private final int playersPerMatch;
+    private final SkillCatalog.ClassInfo[] classInfos;
+    // Duelos: todos os pares de classes (a <= b), um por partida em rodízio
+    private final int[][] pairs;
+
+    // Resultado somado entre as tarefas do fork/join
+    static final class Stats {
+        final long[] games;
+        final long[] wins;
+        // Duelos: vitórias/partidas da classe da linha contra a da coluna
+        final long[][] matchupGames;
+        final long[][] matchupWins;
+        final long[] skillUses;
+        long matches;
+        long draws;
+        long turns;
+
+        Stats(int classCount, int skillCount) {
+            games = new long[classCount];
+            wins = new long[classCount];
+            matchupGames = new long[classCount][classCount];
+            matchupWins = new long[classCount][classCount];
+            skillUses = new long[skillCount];
+        }
+
+        void add(Stats other) {
+            for (int i = 0; i < games.length; i++) {
+                games[i] += other.games[i];
+                wins[i] += other.wins[i];
+                for (int j = 0; j < games.length; j++) {
+                    matchupGames[i][j] += other.matchupGames[i][j];
+                    matchupWins[i][j] += other.matchupWins[i][j];
+                }
+            }
+            for (int i = 0; i < skillUses.length; i++) {
+                skillUses[i] += other.skillUses[i];
+            }
+            matches += other.matches;
+            draws += other.draws;
+            turns += other.turns;
+        }
+    }
+
+    CombatSimulator(ActionPolicy policy, int playersPerMatch) {
+        this.policy = policy;
+        this.playersPerMatch = playersPerMatch;
+        this.classInfos = SkillCatalog.get().getClasses();
+
+        java.util.List<int[]> allPairs = new ArrayList<>();
+        for (int a = 0; a < classInfos.length; a++) {
+            for (int b = a; b < classInfos.length; b++) {
+                allPairs.add(new int[] {a, b});
+            }
+        }
+        this.pairs = allPairs.toArray(new int[0][]);
+    }
+
+    Stats run(long matches, long seed, ForkJoinPool pool) {
+        return pool.invoke(new MatchTask(0, matches, new SplittableRandom(seed)));
+    }
+
+    private Stats newStats() {
+        int skillCount = 0;
+        for (SkillCatalog.ClassInfo classInfo : classInfos) {
+            for (SkillInfo skill : classInfo.skills) {
+                skillCount = Math.max(skillCount, skill.id + 1);
+            }
+        }
+        return new Stats(classInfos.length, skillCount);
+    }
+
+    // Divide o intervalo de partidas; cada metade recebe um gerador derivado (resultado reprodutível)
+    // Nunca é serializada (só roda no pool)
+    @SuppressWarnings("serial")
+    private final class MatchTask extends RecursiveTask<Stats> {
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        MatchTask(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= LEAF_MATCHES) {
+                Stats stats = newStats();
+                int[] classes = new int[playersPerMatch];
+                for (long match = from; match < to; match++) {
+                    chooseClasses(match, classes);
+                    runMatch(classes, random, stats);
+                }
+                return stats;
+            }
+
+            long middle = (from + to) >>> 1;
+            MatchTask left = new MatchTask(from, middle, random.split());
+            MatchTask right = new MatchTask(middle, to, random.split());
+            left.fork();
+            Stats stats = right.compute();
+            stats.add(left.join());
+            return stats;
+        }
+
+        private void chooseClasses(long match, int[] classes) {
+            if (playersPerMatch == 2) {
+                int[] pair = pairs[(int) (match % pairs.length)];
+                // Ordem dos assentos sorteada: empate de agilidade não favorece ninguém
+                boolean swap = random.nextBoolean();
+                classes[0] = swap ? pair[1] : pair[0];
+                classes[1] = swap ? pair[0] : pair[1];
+            } else {
+                for (int i = 0; i < classes.length; i++) {
+                    classes[i] = random.nextInt(classInfos.length);
+                }
+            }
+        }
+    }
+
+    private static final String[] SEAT_NAMES = {"P0", "P1", "P2", "P3", "P4", "P5", "P6", "P7"};
+
+    // Mesma sequência do servidor: ações escolhidas no início do turno, depois
+    // efeitos contínuos, ações por agilidade e fim do turno
+    void runMatch(int[] classes, SplittableRandom random, Stats stats) {
+        PlayerRegistry players = new PlayerRegistry(classes.length);
+        Player[] seats = new Player[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            seats[i] = new Player(SEAT_NAMES[i], classInfos[classes[i]]);
+            players.add(seats[i]);
+        }
+        CombatRules rules = new CombatRules(players, random);
+        ArrayList<PlayerAction> actions = new ArrayList<>(classes.length);
+
+        int turn = 0;
+        while (players.getAliveCount() > 1 && turn < MAX_TURNS) {
+            turn++;
+            actions.clear();
+            for (Player player : seats) {
+                if (!player.isAlive) continue;
+                PlayerAction action;
+                if (player.hasAnyStatusEffect(StatusEffect.PARALYZING)) {
+                    action = new PlayerAction(player.name, "paralyzed", "", "", player.getAgility());
+                } else {
+                    action = policy.choose(player, players, random);
+                    if (action.skillInfo != null) {
+                        stats.skillUses[action.skillInfo.id]++;
+                    }
+                }
+                actions.add(action);
+            }
+
+            CombatRules.sortByPriority(actions);
+            rules.processStatusEffects();
+            for (PlayerAction action : actions) {
+                Player actor = players.get(action.playerName);
+                if (actor != null && actor.isAlive) {
+                    rules.executePlayerAction(action);
+                }
+            }
+            rules.endTurn();
+        }
+
+        stats.matches++;
+        stats.turns += turn;
+        Player winner = players.getAliveCount() == 1 ? players.firstAlive() : null;
+        if (winner == null) {
+            stats.draws++;
+        }
+        for (int i = 0; i < seats.length; i++) {
+            stats.games[classes[i]]++;
+            if (seats[i] == winner) {
+                stats.wins[classes[i]]++;
+            }
+        }
+        if (classes.length == 2) {
+            stats.matchupGames[classes[0]][classes[1]]++;
+            stats.matchupGames[classes[1]][classes[0]]++;
+            if (winner == seats[0]) stats.matchupWins[classes[0]][classes[1]]++;
+            if (winner == seats[1]) stats.matchupWins[classes[1]][classes[0]]++;
+        }
+    }
+
+    void printReport(Stats stats, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%,d partidas em %.1f s (%,.0f partidas/s), %d jogadores, empates %.2f%%, média %.1f turnos%n",
+                stats.matches, seconds, stats.matches / seconds, playersPerMatch,
+                100.0 * stats.draws / stats.matches, (double) stats.turns / stats.matches);
+
+        System.out.println();
+        System.out.println("Vitórias por classe");
+        for (int i = 0; i < classInfos.length; i++) {
+            System.out.printf("  %-12s %6.2f%%  (%,d partidas)%n", classInfos[i].name,
+                    percent(stats.wins[i], stats.games[i]), stats.games[i]);
+        }
+
+        if (playersPerMatch == 2) {
+            System.out.println();
+            System.out.println("Duelos: % de vitória da linha contra a coluna");
+            System.out.printf("  %-12s", "");
+            for (SkillCatalog.ClassInfo classInfo : classInfos) {
+                System.out.printf(" %11s", classInfo.name);
+            }
+            System.out.println();
+            for (int i = 0; i < classInfos.length; i++) {
+                System.out.printf("  %-12s", classInfos[i].name);
+                for (int j = 0; j < classInfos.length; j++) {
+                    System.out.printf(" %10.1f%%", percent(stats.matchupWins[i][j], stats.matchupGames[i][j]));
+                }
+                System.out.println();
+            }
+        }
+
+        System.out.println();
+        System.out.println("Uso de habilidades (% dos ataques da classe)");
+        for (SkillCatalog.ClassInfo classInfo : classInfos) {
+            long total = 0;
+            for (SkillInfo skill : classInfo.skills) {
+                total += stats.skillUses[skill.id];
+            }
+            for (SkillInfo skill : classInfo.skills) {
+                System.out.printf("  %-12s %-24s %6.2f%%  (%,d)%n", classInfo.name, skill.name,
+                        percent(stats.skillUses[skill.id], total), stats.skillUses[skill.id]);
+            }
+        }
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    public static void main(String[] args) {
+        long matches = 100_000;
+        int players = 2;
+        ActionPolicy policy = ActionPolicy.GREEDY;
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = eq >= 0 ? arg.substring(0, eq) : arg;
+            String value = eq >= 0 ? arg.substring(eq + 1) : "";
+            switch (key) {
+                case "--matches":
+                    matches = Long.parseLong(value.replace("_", ""));
+                    break;
+                case "--players":
+                    players = Integer.parseInt(value);
+                    if (players < 2 || players > GameRoom.MAX_PLAYERS) {
+                        throw new IllegalArgumentException("Jogadores por partida: 2 a " + GameRoom.MAX_PLAYERS);
+                    }
+                    break;
+                case "--policy":
+                    policy = ActionPolicy.byName(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        CombatSimulator simulator = new CombatSimulator(policy, players);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.println("Semente: " + seed + ", threads: " + threads);
+        long start = System.nanoTime();
+        Stats stats = simulator.run(matches, seed, pool);
+        simulator.printReport(stats, System.nanoTime() - start);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,516 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cliente do protocolo sem interface: conexão, HELLO, leitura das mensagens e estado
+// dos jogadores (keyframes e deltas, com RESYNC quando o estado local se perde).
+// A janela (RpgClient) e o gerador de carga (LoadGenerator) só registram um Listener.
+public class GameClient {
+
+    // Eventos do servidor, já com o estado dos jogadores atualizado
+    interface Listener {
+        default void onJoinSuccess() {}
+        default void onJoinRejected(String reason) {}
+        // RESUME aceito: o estado completo vem em seguida (LOBBY_UPDATE ou GAME_START + PLAYERS_INFO)
+        default void onResumed() {}
+        default void onResumeRejected(String reason) {}
+        // Fila de partidas: entrada (jogadores na fila), recusa, sala encontrada (o
+        // JOIN_SUCCESS vem logo depois) e saída confirmada
+        default void onQueued(int queuedPlayers) {}
+        default void onQueueRejected(String reason) {}
+        default void onMatchFound(String room) {}
+        default void onQueueLeft() {}
+        // Espectador: SPECTATE aceito (o estado da sala vem em seguida), recusado, saída
+        // confirmada e sala encerrada pelo servidor
+        default void onSpectating(String room) {}
+        default void onSpectateRejected(String reason) {}
+        default void onSpectateLeft() {}
+        default void onSpectateEnded(String room) {}
+        // ROOM_CREATED, ROOM_REJECTED e ROOM_LIST
+        default void onRoomMessage(String[] parts) {}
+        default void onLobbyUpdate(String[] parts) {}
+        default void onCountdown(String seconds) {}
+        default void onGameStart() {}
+        default void onPlayersInfo(String[] parts) {}
+        default void onPlayersChanged() {}
+        default void onTurnStart(int turn, int timeLimit) {}
+        default void onTurnResult(String[] parts) {}
+        // Servidor com --turn-results=stream: cada ação assim que sai, na ordem de
+        // execução, e TURN_END depois do estado atualizado (no lugar do TURN_RESULT)
+        default void onActionResult(int turn, String result) {}
+        default void onTurnEnd(int turn) {}
+        default void onGameEnd(String winner) {}
+        default void onUnknownMessage(String[] parts) {}
+        default void onConnectionLost() {}
+    }
+
+    // Informações de um jogador como o servidor as enviou
+    static class Player {
+        int id = -1;
+        String name;
+        String playerClass;
+        int hp;
+        int maxHP;
+        int mp;
+        int maxMP;
+        boolean isAlive;
+        boolean isDefending;
+        long effectMask;
+        final int[] effectTurns = new int[StatusEffect.VALUES.length];
+
+        Player(String name, String playerClass) {
+            this.name = name;
+            this.playerClass = playerClass;
+            this.hp = 100;
+            this.maxHP = 100;
+            this.mp = 20;
+            this.maxMP = 20;
+            this.isAlive = true;
+            this.isDefending = false;
+        }
+
+        boolean hasAnyStatusEffect(long mask) {
+            return (effectMask & mask) != 0;
+        }
+    }
+
+    private final Listener listener;
+    // Onde as mensagens são aplicadas e os eventos entregues (ex.: SwingUtilities::invokeLater)
+    private final Executor dispatcher;
+    // Mostra cada mensagem enviada e recebida no console
+    private final boolean logTraffic;
+
+    // Conexão
+    private volatile Socket socket;
+    private InputStream in;
+    private OutputStream rawOut;
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private volatile boolean binary = false;
+    private volatile boolean connected = false;
+
+    // Estado: só lido e alterado no dispatcher
+    private String playerName;
+    private final java.util.List<Player> allPlayers = new ArrayList<>();
+    private final Map<String, Player> playersByName = new HashMap<>();
+    private final Map<Integer, Player> playersById = new HashMap<>();
+    private Player currentPlayer;
+    private int currentTurnNumber = 0;
+    // Semente das regras da partida atual (GAME_START); null com servidor antigo
+    private Long matchSeed;
+    // Ficha do JOIN_SUCCESS para voltar com RESUME depois de uma queda
+    private volatile String resumeToken;
+
+    GameClient(Listener listener, Executor dispatcher, boolean logTraffic) {
+        this.listener = listener;
+        this.dispatcher = dispatcher;
+        this.logTraffic = logTraffic;
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    boolean isBinary() {
+        return binary;
+    }
+
+    String getPlayerName() {
+        return playerName;
+    }
+
+    java.util.List<Player> getPlayers() {
+        return allPlayers;
+    }
+
+    Player getPlayer(String name) {
+        return playersByName.get(name);
+    }
+
+    Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    int getCurrentTurnNumber() {
+        return currentTurnNumber;
+    }
+
+    Long getMatchSeed() {
+        return matchSeed;
+    }
+
+    String getResumeToken() {
+        return resumeToken;
+    }
+
+    // Conecta, negocia o protocolo (binaryRequested) e inicia a thread de leitura
+    void connect(String host, int port, boolean binaryRequested) throws IOException {
+        Socket current = new Socket(host, port);
+        current.setTcpNoDelay(true);
+        socket = current;
+        in = new BufferedInputStream(current.getInputStream());
+        rawOut = new BufferedOutputStream(current.getOutputStream());
+        binary = false;
+        if (binaryRequested) {
+            negotiateBinary();
+        }
+        connected = true;
+
+        InputStream input = in;
+        Thread receiveThread = new Thread(() -> receiveMessages(current, input), "client-reader");
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    // HELLO é respondido antes de qualquer outra mensagem, então a resposta é lida aqui mesmo
+    private void negotiateBinary() throws IOException {
+        writeLine("HELLO|bin|" + BinaryCodec.VERSION);
+        socket.setSoTimeout(5000);
+        try {
+            String reply = BinaryCodec.readLine(in);
+            binary = reply != null && reply.startsWith("HELLO_OK|bin");
+            log("Protocolo: " + (binary ? "binário" : "texto"));
+        } catch (SocketTimeoutException e) {
+            log("Servidor não respondeu ao HELLO, usando texto");
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    // Cada conexão tem a sua thread; a de uma conexão antiga (trocada por resume) sai calada
+    private void receiveMessages(Socket current, InputStream input) {
+        try {
+            while (connected && socket == current) {
+                String[] parts = readMessage(input, binary);
+                if (parts == null) break;
+                if (logTraffic) {
+                    log("Recebido: " + String.join("|", parts));
+                }
+                // Respondido aqui mesmo: a fila do dispatcher (ex.: Swing) não entra no RTT
+                if (parts[0].equals("PING")) {
+                    send(parts.length > 1 ? "PONG|" + parts[1] : "PONG");
+                    continue;
+                }
+                dispatcher.execute(() -> processServerMessage(parts));
+            }
+        } catch (IOException e) {
+            // tratado abaixo
+        }
+        if (connected && socket == current) {
+            connected = false;
+            dispatcher.execute(listener::onConnectionLost);
+        }
+    }
+
+    // Uma mensagem do stream já dividida em campos; null no fim da conexão
+    static String[] readMessage(InputStream input, boolean binary) throws IOException {
+        if (binary) {
+            return BinaryCodec.readFrame(input);
+        }
+        String message = BinaryCodec.readLine(input);
+        return message != null ? message.split("\\|", -1) : null;
+    }
+
+    // Só no dispatcher (o Benchmarks chama direto, sem conexão)
+    void processServerMessage(String[] parts) {
+        switch (parts[0]) {
+            case "JOIN_SUCCESS":
+                resumeToken = parts.length > 1 && !parts[1].isEmpty() ? parts[1] : null;
+                listener.onJoinSuccess();
+                break;
+
+            case "RESUME_OK":
+                if (parts.length > 1) {
+                    playerName = parts[1];
+                }
+                listener.onResumed();
+                break;
+
+            case "RESUME_REJECTED":
+                resumeToken = null;
+                listener.onResumeRejected(parts.length > 1 ? parts[1] : "Motivo desconhecido");
+                break;
+
+            case "JOIN_REJECTED":
+                listener.onJoinRejected(parts.length > 1 ? parts[1] : "Motivo desconhecido");
+                break;
+
+            case "QUEUED":
+                listener.onQueued(parts.length > 1 ? Integer.parseInt(parts[1]) : -1);
+                break;
+
+            case "QUEUE_REJECTED":
+                listener.onQueueRejected(parts.length > 1 ? parts[1] : "Motivo desconhecido");
+                break;
+
+            case "MATCH_FOUND":
+                listener.onMatchFound(parts.length > 1 ? parts[1] : "");
+                break;
+
+            case "QUEUE_LEFT":
+                listener.onQueueLeft();
+                break;
+
+            case "SPECTATE_OK":
+                playerName = null;
+                currentPlayer = null;
+                listener.onSpectating(parts.length > 1 ? parts[1] : "");
+                break;
+
+            case "SPECTATE_REJECTED":
+                listener.onSpectateRejected(parts.length > 1 ? parts[1] : "");
+                break;
+
+            case "SPECTATE_LEFT":
+                listener.onSpectateLeft();
+                break;
+
+            case "SPECTATE_ENDED":
+                listener.onSpectateEnded(parts.length > 1 ? parts[1] : "");
+                break;
+
+            case "ROOM_CREATED":
+            case "ROOM_REJECTED":
+            case "ROOM_LIST":
+                listener.onRoomMessage(parts);
+                break;
+
+            case "LOBBY_UPDATE":
+                listener.onLobbyUpdate(parts);
+                break;
+
+            case "COUNTDOWN":
+                if (parts.length > 1) {
+                    listener.onCountdown(parts[1]);
+                }
+                break;
+
+            case "GAME_START":
+                matchSeed = parts.length > 1 ? Long.valueOf(parts[1]) : null;
+                listener.onGameStart();
+                break;
+
+            case "PLAYERS_INFO":
+                updatePlayersInfo(parts);
+                listener.onPlayersInfo(parts);
+                break;
+
+            case "PLAYERS_UPDATE":
+                updatePlayersInfo(parts);
+                listener.onPlayersChanged();
+                break;
+
+            case "PLAYERS_DELTA":
+                if (applyPlayersDelta(parts)) {
+                    listener.onPlayersChanged();
+                }
+                break;
+
+            case "START_TURN":
+                if (parts.length > 1) {
+                    currentTurnNumber = Integer.parseInt(parts[1]);
+                    // Tempo restante definido pelo servidor (prazo autoritativo)
+                    int timeLimit = parts.length > 2 ? Integer.parseInt(parts[2]) : -1;
+                    listener.onTurnStart(currentTurnNumber, timeLimit);
+                }
+                break;
+
+            case "TURN_RESULT":
+                listener.onTurnResult(parts);
+                break;
+
+            case "ACTION_RESULT":
+                if (parts.length > 2) {
+                    listener.onActionResult(Integer.parseInt(parts[1]), parts[2]);
+                }
+                break;
+
+            case "TURN_END":
+                if (parts.length > 1) {
+                    listener.onTurnEnd(Integer.parseInt(parts[1]));
+                }
+                break;
+
+            case "GAME_END":
+                listener.onGameEnd(parts.length > 1 ? parts[1] : "Desconhecido");
+                break;
+
+            default:
+                listener.onUnknownMessage(parts);
+                break;
+        }
+    }
+
+    // Keyframe: atualiza os jogadores no lugar, cria os novos e remove os que saíram
+    private void updatePlayersInfo(String[] parts) {
+        Set<String> received = new HashSet<>();
+
+        for (int i = 1; i < parts.length; i++) {
+            String[] playerData = parts[i].split(",");
+            if (playerData.length >= 9) {
+                String name = playerData[0];
+                String playerClass = playerData[1];
+
+                Player player = playersByName.get(name);
+                if (player == null) {
+                    player = new Player(name, playerClass);
+                    playersByName.put(name, player);
+                    allPlayers.add(player);
+                }
+                if (playerData.length >= 10) {
+                    playersById.remove(player.id);
+                    player.id = Integer.parseInt(playerData[9]);
+                    playersById.put(player.id, player);
+                }
+                player.hp = Integer.parseInt(playerData[3]);
+                player.maxHP = Integer.parseInt(playerData[4]);
+                player.mp = Integer.parseInt(playerData[5]);
+                player.maxMP = Integer.parseInt(playerData[6]);
+                player.isAlive = Boolean.parseBoolean(playerData[7]);
+                player.effectMask = StatusEffect.parseCodes(playerData[8], player.effectTurns);
+                received.add(name);
+
+                if (name.equals(playerName)) {
+                    currentPlayer = player;
+                }
+            }
+        }
+
+        allPlayers.removeIf(player -> {
+            if (received.contains(player.name)) return false;
+            playersByName.remove(player.name);
+            playersById.remove(player.id, player);
+            return true;
+        });
+    }
+
+    // Delta: id,campo=valor,... aplicado direto no jogador já conhecido.
+    // Retorna false se o estado local estava desatualizado (keyframe pedido).
+    private boolean applyPlayersDelta(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] fields = parts[i].split(",");
+            Player player = playersById.get(Integer.parseInt(fields[0]));
+            if (player == null) {
+                // Estado local desatualizado: pede um keyframe
+                send("RESYNC");
+                return false;
+            }
+
+            for (int f = 1; f < fields.length; f++) {
+                int eq = fields[f].indexOf('=');
+                String value = fields[f].substring(eq + 1);
+                switch (fields[f].substring(0, eq)) {
+                    case "hp": player.hp = Integer.parseInt(value); break;
+                    case "mp": player.mp = Integer.parseInt(value); break;
+                    case "alive": player.isAlive = Boolean.parseBoolean(value); break;
+                    case "fx": player.effectMask = StatusEffect.parseCodes(value, player.effectTurns); break;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Comandos do protocolo
+
+    void join(String name, String playerClass) {
+        playerName = name;
+        send("JOIN|" + name + "|" + playerClass);
+    }
+
+    // Nova conexão que assume o jogador da ficha (depois de onConnectionLost ou disconnect)
+    void resume(String host, int port, boolean binaryRequested) throws IOException {
+        String token = resumeToken;
+        if (token == null) {
+            throw new IllegalStateException("sem ficha de RESUME");
+        }
+        connect(host, port, binaryRequested);
+        send("RESUME|" + token);
+    }
+
+    // Fila de partidas: o servidor escolhe a sala e inicia sozinho
+    void queue(String name, String playerClass) {
+        playerName = name;
+        send("QUEUE|" + name + "|" + playerClass);
+    }
+
+    void leaveQueue() {
+        send("LEAVE_QUEUE");
+    }
+
+    // Só assiste: recebe o que a sala transmite, sem jogador próprio
+    void spectate(String roomName) {
+        send("SPECTATE|" + roomName);
+    }
+
+    void leaveSpectate() {
+        send("LEAVE_SPECTATE");
+    }
+
+    void createRoom(String roomName) {
+        send("CREATE_ROOM|" + roomName);
+    }
+
+    void joinRoom(String roomName, String name, String playerClass) {
+        playerName = name;
+        send("JOIN_ROOM|" + roomName + "|" + name + "|" + playerClass);
+    }
+
+    void attack(String target, SkillInfo skill) {
+        send("ACTION|" + playerName + "|attack|" + target + "|" + skill.id);
+    }
+
+    void defend() {
+        send("ACTION|" + playerName + "|defense| | ");
+    }
+
+    void useItem(String item) {
+        send("ACTION|" + playerName + "|item| |" + item);
+    }
+
+    void sendParalyzed() {
+        send("ACTION|" + playerName + "|paralyzed| | ");
+    }
+
+    // Pode ser chamado de qualquer thread; as linhas/quadros não se misturam
+    void send(String message) {
+        if (!connected) return;
+        if (logTraffic) {
+            log("Enviando: " + message);
+        }
+        sendLock.lock();
+        try {
+            if (binary) {
+                rawOut.write(BinaryCodec.encode(message));
+                rawOut.flush();
+            } else {
+                writeLine(message);
+            }
+        } catch (IOException e) {
+            log("Erro ao enviar: " + e.getMessage());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void writeLine(String message) throws IOException {
+        rawOut.write((message + "\n").getBytes(StandardCharsets.UTF_8));
+        rawOut.flush();
+    }
+
+    void disconnect() {
+        connected = false;
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+
+        }
+    }
+
+    private void log(String message) {
+        if (logTraffic) {
+            System.out.println("[CLIENT] " + message);
+        }
+    }
+}
@@ -0,0 +1,941 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sala de partida: jogadores, estado do turno e grupo de broadcast proprios
+public class GameRoom {
+    static final int MAX_PLAYERS = 6;
+    static final int MIN_PLAYERS = 2;
+
+    private final GameServer server;
+    final String name;
+    // ReentrantLock em vez de synchronized para não prender threads virtuais ao carrier
+    private final ReentrantLock playersLock = new ReentrantLock();
+    private final ReentrantLock turnLock = new ReentrantLock();
+    private final PlayerRegistry players = new PlayerRegistry(MAX_PLAYERS);
+    // Diário e semente da partida atual: nova semente a cada partida (sob o turnLock)
+    private MatchJournal journal;
+    private long matchSeed;
+    private int matchesStarted = 0;
+    // Jogadores cuja conexão caiu: guardam o lugar até o prazo do RESUME (sob o turnLock)
+    private final Map<String, TimingWheel.Timeout> detached = new HashMap<>();
+    private final Map<String, ClientHandler> members = new ConcurrentHashMap<>();
+    private volatile boolean gameStarted = false;
+    private volatile boolean battleInProgress = false;
+    private final Map<String, PlayerAction> currentTurnActions = new ConcurrentHashMap<>();
+    private volatile int currentTurnNumber = 0;
+    private TimingWheel.Timeout startCountdown;
+    private TimingWheel.Timeout turnDeadline;
+    private long turnDeadlineAt;
+    private int turnTimeoutSeconds;
+    // Sala formada pela fila de partidas: uma partida só; depois dela cada um volta
+    // para a fila (QUEUE) e nada reinicia a sala
+    volatile boolean fromQueue = false;
+    final RoomMetrics metrics;
+    // Quem assiste (SPECTATE): caminho de entrega separado do dos jogadores
+    final SpectatorFeed spectators;
+    // Quando o START_TURN atual saiu (para a espera pelas ações)
+    private volatile long turnStartedAt;
+
+    GameRoom(GameServer server, String name) {
+        this(server, name, server.config.turnTimeoutSeconds);
+    }
+
+    GameRoom(GameServer server, String name, int turnTimeoutSeconds) {
+        this.server = server;
+        this.name = name;
+        this.turnTimeoutSeconds = turnTimeoutSeconds;
+        this.metrics = new RoomMetrics(this, server.metrics);
+        this.spectators = new SpectatorFeed(this, server);
+    }
+
+    private void logMessage(String message) {
+        server.logMessage("[" + name + "] " + message);
+    }
+
+    // Detalhe de cada ação/turno; os pontos quentes checam isDebugEnabled antes de montar o texto
+    private void logDebug(String message) {
+        server.logDebug("[" + name + "] " + message);
+    }
+
+    private boolean isDebugEnabled() {
+        return server.log.isEnabled(ServerLog.Level.DEBUG);
+    }
+
+    int getPlayerCount() {
+        playersLock.lock();
+        try {
+            return players.size();
+        } finally {
+            playersLock.unlock();
+        }
+    }
+
+    boolean isGameStarted() {
+        return gameStarted;
+    }
+
+    boolean isBattleInProgress() {
+        return battleInProgress;
+    }
+
+    int getCurrentTurnNumber() {
+        return currentTurnNumber;
+    }
+
+    // Sem trava: usado pelas métricas
+    int getMemberCount() {
+        return members.size();
+    }
+
+    ClientHandler getMember(String playerName) {
+        return members.get(playerName);
+    }
+
+    boolean isEmpty() {
+        return getPlayerCount() == 0;
+    }
+
+    java.util.List<Player> getPlayersSnapshot() {
+        playersLock.lock();
+        try {
+            return players.snapshot();
+        } finally {
+            playersLock.unlock();
+        }
+    }
+
+    // Formato: sala,jogadores,maximo,estado,espectadores
+    String getSummary() {
+        String state = battleInProgress ? "em_batalha" : "aguardando";
+        return name + "," + getPlayerCount() + "," + MAX_PLAYERS + "," + state + "," + spectators.size();
+    }
+
+    // SPECTATE: SPECTATE_OK e o estado atual (como no RESUME), depois o que a sala transmitir.
+    // Devolve null ou o motivo da recusa.
+    String spectate(ClientHandler handler) {
+        turnLock.lock();
+        try {
+            return spectators.subscribe(handler, () -> {
+                handler.sendMessage("SPECTATE_OK|" + name);
+                sendStateTo(handler);
+            });
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    // Retorna null se entrou, ou o motivo da rejeição (classInfo null = classe desconhecida)
+    String join(ClientHandler handler, String playerName, SkillCatalog.ClassInfo classInfo) {
+        if (gameStarted) {
+            return "Partida já iniciada";
+        }
+        if (classInfo == null) {
+            return "Classe desconhecida";
+        }
+
+        playersLock.lock();
+        try {
+            if (players.size() >= MAX_PLAYERS) {
+                return "Sala lotada";
+            }
+
+            Player player = new Player(playerName, classInfo);
+            if (!players.add(player)) {
+                return "Nome já existe";
+            }
+            player.resumeToken = server.issueResumeToken(this);
+        } finally {
+            playersLock.unlock();
+        }
+
+        members.put(playerName, handler);
+        logMessage("Jogador conectado: " + playerName + " (" + classInfo.name + ")");
+        return null;
+    }
+
+    // Saída do lobby para a fila de partidas; false com a partida em andamento
+    boolean leave(String playerName, ClientHandler handler) {
+        turnLock.lock();
+        try {
+            if (gameStarted || !members.remove(playerName, handler)) {
+                return false;
+            }
+            playersLock.lock();
+            try {
+                Player removed = players.remove(playerName);
+                if (removed != null) {
+                    server.revokeResumeToken(removed.resumeToken);
+                }
+            } finally {
+                playersLock.unlock();
+            }
+        } finally {
+            turnLock.unlock();
+        }
+
+        logMessage("Jogador " + playerName + " saiu da sala");
+        updateLobby();
+        checkAutoStart();
+        return true;
+    }
+
+    // Vai no JOIN_SUCCESS; com ela o cliente volta por RESUME se a conexão cair
+    String getResumeToken(String playerName) {
+        Player player = getPlayerByName(playerName);
+        return player != null ? player.resumeToken : null;
+    }
+
+    boolean startGame() {
+        // Arquivo do diário criado antes das travas (o início não espera o disco); se
+        // outro chamador começou a partida antes, é apagado depois de soltá-las
+        MatchJournal created = server.journals != null && !gameStarted && getPlayerCount() >= MIN_PLAYERS
+                ? server.journals.create(name) : null;
+        boolean started = false;
+        turnLock.lock();
+        try {
+            if (gameStarted || getPlayerCount() < MIN_PLAYERS) {
+                return false;
+            }
+            started = true;
+
+            cancelCountdown();
+            gameStarted = true;
+            battleInProgress = true;
+            currentTurnNumber = 1;
+
+            matchSeed = server.nextMatchSeed(name, ++matchesStarted);
+            if (created != null) {
+                playersLock.lock();
+                try {
+                    journal = created;
+                    server.journals.start(journal, name, matchSeed, players);
+                } finally {
+                    playersLock.unlock();
+                }
+            }
+            takeSnapshot();
+        } finally {
+            turnLock.unlock();
+            if (!started && created != null) {
+                server.journals.discard(created);
+            }
+        }
+
+        server.metrics.gamesStarted.increment();
+        logMessage("=== PARTIDA INICIADA ===");
+        logMessage("Jogadores participantes: " + getPlayerCount());
+        logMessage("Semente da partida: " + matchSeed);
+
+
+        broadcastMessage("GAME_START|" + matchSeed);
+
+
+        server.getScheduler().schedule(() -> {
+            sendPlayersInfo();
+            beginTurn();
+        }, 500, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    // Início automático: sala cheia inicia na hora, com o mínimo inicia após a contagem
+    void checkAutoStart() {
+        if (!server.config.autoStart || gameStarted || fromQueue) {
+            return;
+        }
+
+        boolean startNow = false;
+        turnLock.lock();
+        try {
+            int count = getPlayerCount();
+            if (count >= MAX_PLAYERS) {
+                startNow = true;
+            } else if (count >= MIN_PLAYERS) {
+                if (startCountdown == null) {
+                    int seconds = server.config.startCountdownSeconds;
+                    startCountdown = server.getScheduler().schedule(() -> {
+                        if (startGame()) {
+                            server.fireStateChanged();
+                        }
+                    }, seconds, TimeUnit.SECONDS);
+                    broadcastMessage("COUNTDOWN|" + seconds);
+                    logMessage("Partida começa em " + seconds + " segundos");
+                }
+            } else {
+                cancelCountdown();
+            }
+        } finally {
+            turnLock.unlock();
+        }
+
+        if (startNow && startGame()) {
+            server.fireStateChanged();
+        }
+    }
+
+    private void cancelCountdown() {
+        if (startCountdown != null) {
+            startCountdown.cancel();
+            startCountdown = null;
+        }
+    }
+
+    // Envia START_TURN com o tempo restante e arma o prazo do turno no servidor
+    private void beginTurn() {
+        int turn;
+        turnLock.lock();
+        try {
+            if (!battleInProgress) {
+                return;
+            }
+            turn = currentTurnNumber;
+            turnDeadlineAt = System.currentTimeMillis() + turnTimeoutSeconds * 1000L;
+            turnDeadline = server.getScheduler().schedule(() -> onTurnDeadline(turn),
+                    turnTimeoutSeconds, TimeUnit.SECONDS);
+        } finally {
+            turnLock.unlock();
+        }
+
+        turnStartedAt = System.nanoTime();
+        broadcastMessage("START_TURN|" + turn + "|" + turnTimeoutSeconds);
+        logDebug("Turno " + turn + " iniciado");
+    }
+
+    // Prazo esgotado: quem não agiu defende (ou fica paralisado) e o turno é resolvido
+    private void onTurnDeadline(int turn) {
+        turnLock.lock();
+        try {
+            if (!battleInProgress || currentTurnNumber != turn) {
+                return;
+            }
+            turnDeadline = null;
+
+            int defaulted = 0;
+            playersLock.lock();
+            try {
+                for (Player player : players) {
+                    if (!player.isAlive || currentTurnActions.containsKey(player.name)) continue;
+
+                    String actionType = player.hasAnyStatusEffect(StatusEffect.PARALYZING)
+                            ? "paralyzed" : "defense";
+                    PlayerAction action = new PlayerAction(player.name, actionType, "", "", player.getAgility());
+                    currentTurnActions.put(player.name, action);
+                    if (journal != null) {
+                        journal.action(turn, player, action);
+                    }
+                    defaulted++;
+                }
+            } finally {
+                playersLock.unlock();
+            }
+
+            logMessage("Prazo do turno " + turn + " esgotado - ação padrão para " + defaulted + " jogadores");
+        } finally {
+            turnLock.unlock();
+        }
+
+        processTurnActions();
+    }
+
+    private void cancelTurnDeadline() {
+        if (turnDeadline != null) {
+            turnDeadline.cancel();
+            turnDeadline = null;
+        }
+    }
+
+    int getTurnTimeoutSeconds() {
+        return turnTimeoutSeconds;
+    }
+
+    private void sendPlayersInfo() {
+        broadcastMessage(buildFullState("PLAYERS_INFO"));
+    }
+
+    // Estado completo de todos (keyframe); zera o rastreamento de alterações
+    private String buildFullState(String command) {
+        StringBuilder playersInfo = new StringBuilder(command);
+        playersLock.lock();
+        try {
+            players.appendFullState(playersInfo, true);
+        } finally {
+            playersLock.unlock();
+        }
+        return playersInfo.toString();
+    }
+
+    // Envia só os campos alterados; a cada keyframeInterval turnos envia o estado completo
+    private void sendPlayersUpdate() {
+        int interval = server.config.keyframeInterval;
+        if (interval == 0 || currentTurnNumber % interval == 0) {
+            broadcastMessage(buildFullState("PLAYERS_UPDATE"));
+            return;
+        }
+
+        StringBuilder delta = new StringBuilder("PLAYERS_DELTA");
+        boolean changed;
+        playersLock.lock();
+        try {
+            changed = players.appendDelta(delta);
+        } finally {
+            playersLock.unlock();
+        }
+
+        if (changed) {
+            broadcastMessage(delta.toString());
+        }
+    }
+
+    // Pedido de ressincronização de um cliente (RESYNC)
+    void sendKeyframeTo(ClientHandler handler) {
+        String keyframe = buildKeyframe();
+        if (keyframe != null) {
+            handler.sendMessage(keyframe);
+        }
+    }
+
+    // Estado completo sem mexer no rastreamento de alterações dos outros clientes
+    String buildKeyframe() {
+        return buildKeyframe("PLAYERS_UPDATE");
+    }
+
+    private String buildKeyframe(String command) {
+        if (!gameStarted) {
+            return null;
+        }
+        StringBuilder playersInfo = new StringBuilder(command);
+        playersLock.lock();
+        try {
+            players.appendFullState(playersInfo, false);
+        } finally {
+            playersLock.unlock();
+        }
+        return playersInfo.toString();
+    }
+
+    void updateLobby() {
+        broadcastMessage(buildLobbyUpdate());
+    }
+
+    private String buildLobbyUpdate() {
+        StringBuilder lobbyInfo = new StringBuilder("LOBBY_UPDATE");
+        playersLock.lock();
+        try {
+            for (Player player : players) {
+                lobbyInfo.append("|").append(player.name).append(",").append(player.playerClass);
+            }
+        } finally {
+            playersLock.unlock();
+        }
+        return lobbyInfo.toString();
+    }
+
+    // Codificada uma vez só; todos os membros recebem os mesmos bytes e os espectadores
+    // recebem a mesma mensagem depois, pelo SpectatorFeed
+    private void broadcastMessage(String text) {
+        long start = System.nanoTime();
+        OutboundMessage message = new OutboundMessage(text);
+        Iterator<Map.Entry<String, ClientHandler>> it = members.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, ClientHandler> entry = it.next();
+            ClientHandler client = entry.getValue();
+            if (!client.sendMessage(message)) {
+                // jogador desconectado
+                it.remove();
+            }
+        }
+        metrics.recordBroadcast(System.nanoTime() - start);
+        spectators.publish(message);
+    }
+
+    private Player getPlayerByName(String name) {
+        playersLock.lock();
+        try {
+            return players.get(name);
+        } finally {
+            playersLock.unlock();
+        }
+    }
+
+    void handlePlayerAction(String playerName, String actionType, String target, String skill) {
+        if (!battleInProgress) {
+            logDebug("Ação ignorada - batalha não está em andamento: " + playerName);
+            return;
+        }
+
+        Player player = getPlayerByName(playerName);
+        if (player == null || !player.isAlive) {
+            logDebug("Ação ignorada - jogador inválido ou morto: " + playerName);
+            return;
+        }
+
+        turnLock.lock();
+        try {
+            if (currentTurnActions.containsKey(playerName)) {
+                logDebug("Ação ignorada - " + playerName + " já enviou ação este turno");
+                return;
+            }
+
+            if (player.hasAnyStatusEffect(StatusEffect.PARALYZING)
+                && !actionType.equals("paralyzed")) {
+                logDebug("Ação ignorada - " + playerName + " está impedido e tentou agir");
+                return;
+            }
+
+            PlayerAction action = new PlayerAction(playerName, actionType, target, skill,
+                    player.getAgility());
+            if (actionType.equals("attack")) {
+                // Resolvida uma vez aqui; o turno usa a instância do catálogo
+                action.skillInfo = SkillCatalog.get().findSkill(player.classInfo, skill);
+                if (action.skillInfo == null) {
+                    logDebug("Ação ignorada - habilidade inválida para " + player.playerClass + ": " + skill);
+                    return;
+                }
+            }
+            currentTurnActions.put(playerName, action);
+            if (journal != null) {
+                journal.action(currentTurnNumber, player, action);
+            }
+
+            if (isDebugEnabled()) {
+                logDebug("Ação recebida de " + playerName + ": " + actionType +
+                          (target != null && !target.isEmpty() && !target.trim().isEmpty() ? " -> " + target : "") +
+                          (skill != null && !skill.isEmpty() && !skill.trim().isEmpty() ? " (" + skill + ")" : ""));
+            }
+        } finally {
+            turnLock.unlock();
+        }
+
+        processTurnActions();
+    }
+
+    // Desfaz a ação aceita no turno atual (o Benchmarks mede a aceitação repetidas vezes);
+    // false se não havia ação do jogador
+    boolean withdrawAction(String playerName) {
+        turnLock.lock();
+        try {
+            return currentTurnActions.remove(playerName) != null;
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    // Devolve false quando a conexão já não era a do jogador (outra assumiu com RESUME).
+    // Com --resume-grace o jogador guarda o lugar (e segue vivo na batalha, com a ação
+    // padrão do prazo) até o RESUME ou o fim do prazo.
+    boolean handleDisconnect(String playerName, ClientHandler handler) {
+        int grace = server.config.resumeGraceSeconds;
+        boolean wasInGame = false;
+        // Mesma ordem de travas do processamento do turno: turno -> jogadores
+        turnLock.lock();
+        try {
+            ClientHandler current = members.get(playerName);
+            if ((current != null && current != handler) || detached.containsKey(playerName)) {
+                return false;
+            }
+            members.remove(playerName);
+
+            if (grace > 0 && getPlayerByName(playerName) != null) {
+                detach(playerName, grace);
+                logMessage("Jogador " + playerName + " caiu; lugar guardado por " + grace + " s");
+                return true;
+            }
+
+            playersLock.lock();
+            try {
+                Player disconnectedPlayer = players.get(playerName);
+                if (disconnectedPlayer != null && battleInProgress) {
+                    wasInGame = true;
+                    logMessage("Jogador " + playerName + " desconectou durante a batalha!");
+                    leaveBattle(disconnectedPlayer);
+                }
+
+                if (!battleInProgress) {
+                    Player removed = players.remove(playerName);
+                    if (removed != null) {
+                        server.revokeResumeToken(removed.resumeToken);
+                    }
+                }
+            } finally {
+                playersLock.unlock();
+            }
+        } finally {
+            turnLock.unlock();
+        }
+
+        if (!battleInProgress) {
+            updateLobby();
+            checkAutoStart();
+        } else if (wasInGame) {
+            sendPlayersUpdate();
+            processTurnActions();
+        }
+        return true;
+    }
+
+    // Sob o turnLock: o prazo corre no TimingWheel, sem thread parada esperando
+    private void detach(String playerName, int seconds) {
+        detached.put(playerName, server.getScheduler().schedule(() -> expireDetached(playerName),
+                seconds, TimeUnit.SECONDS));
+    }
+
+    // Prazo do RESUME esgotado: na batalha o jogador sai como numa queda; no lobby, da sala
+    private void expireDetached(String playerName) {
+        boolean inBattle;
+        turnLock.lock();
+        playersLock.lock();
+        try {
+            if (detached.remove(playerName) == null) {
+                return;
+            }
+            Player player = players.get(playerName);
+            inBattle = battleInProgress;
+            if (player == null || (inBattle && !player.isAlive)) {
+                return;
+            }
+            logMessage("Jogador " + playerName + " não voltou a tempo");
+            if (inBattle) {
+                leaveBattle(player);
+            } else {
+                players.remove(playerName);
+                server.revokeResumeToken(player.resumeToken);
+            }
+        } finally {
+            playersLock.unlock();
+            turnLock.unlock();
+        }
+
+        if (inBattle) {
+            sendPlayersUpdate();
+            processTurnActions();
+        } else {
+            updateLobby();
+            checkAutoStart();
+            server.removeRoomIfEmpty(this);
+            server.fireStateChanged();
+        }
+    }
+
+    // RESUME: a nova conexão assume o jogador dono da ficha e recebe o estado completo.
+    // Devolve o nome, ou null se a ficha não vale mais. Só usa as travas desta sala.
+    String resume(ClientHandler handler, String token) {
+        Player player = null;
+        ClientHandler previous;
+        turnLock.lock();
+        try {
+            playersLock.lock();
+            try {
+                for (Player candidate : players) {
+                    if (token.equals(candidate.resumeToken)) {
+                        player = candidate;
+                        break;
+                    }
+                }
+            } finally {
+                playersLock.unlock();
+            }
+            if (player == null) {
+                return null;
+            }
+
+            TimingWheel.Timeout expiry = detached.remove(player.name);
+            if (expiry != null) {
+                expiry.cancel();
+            }
+            // Estado antes de entrar no broadcast: nada do que vier depois chega antes dele
+            handler.sendMessage("RESUME_OK|" + player.name);
+            sendStateTo(handler);
+            previous = members.put(player.name, handler);
+        } finally {
+            turnLock.unlock();
+        }
+
+        // Conexão antiga ainda aberta (a queda foi só do lado do cliente): fecha
+        if (previous != null && previous != handler) {
+            previous.replaced();
+        }
+        logMessage("Jogador " + player.name + " retomou a sessão");
+        return player.name;
+    }
+
+    // Sob o turnLock: lobby (e a contagem), ou início da partida, estado completo e o turno atual
+    private void sendStateTo(ClientHandler handler) {
+        if (!gameStarted) {
+            handler.sendMessage(buildLobbyUpdate());
+            if (startCountdown != null) {
+                handler.sendMessage("COUNTDOWN|" + Math.max(1, (startCountdown.getRemainingMillis() + 999) / 1000));
+            }
+            return;
+        }
+        handler.sendMessage("GAME_START|" + matchSeed);
+        String playersInfo = buildKeyframe("PLAYERS_INFO");
+        if (playersInfo != null) {
+            handler.sendMessage(playersInfo);
+        }
+        if (turnDeadline != null) {
+            long remaining = Math.max(1, (turnDeadlineAt - System.currentTimeMillis() + 999) / 1000);
+            handler.sendMessage("START_TURN|" + currentTurnNumber + "|" + remaining);
+        }
+    }
+
+    // Sob turnLock e playersLock: quem sai da batalha morre e pula a ação do turno.
+    // Quem já estava morto não entra na conta das ações e fica como está.
+    private void leaveBattle(Player player) {
+        if (!player.isAlive) {
+            return;
+        }
+        player.setAlive(false);
+        if (journal != null) {
+            journal.leave(currentTurnNumber, player);
+        }
+
+        if (!currentTurnActions.containsKey(player.name)) {
+            PlayerAction skipAction = new PlayerAction(player.name, "skip", "", "", 0);
+            currentTurnActions.put(player.name, skipAction);
+            if (journal != null) {
+                journal.action(currentTurnNumber, player, skipAction);
+            }
+        }
+    }
+
+    // Foto do fim de turno para o SnapshotStore; sob o turnLock
+    private void takeSnapshot() {
+        if (server.snapshots == null) {
+            return;
+        }
+        byte[] snapshot;
+        playersLock.lock();
+        try {
+            snapshot = MatchSnapshot.encode(name, turnTimeoutSeconds, matchSeed, matchesStarted,
+                    currentTurnNumber, players);
+        } finally {
+            playersLock.unlock();
+        }
+        server.snapshots.submit(name, snapshot);
+    }
+
+    // Servidor reiniciado: a partida continua do turno da foto. Quem não voltar com
+    // RESUME (a ficha está na foto) em --restore-grace segundos sai da batalha.
+    void restore(MatchSnapshot snapshot) {
+        int grace = server.config.restoreGraceSeconds;
+        MatchJournal created = server.journals != null ? server.journals.create(name) : null;
+        boolean restored = false;
+        turnLock.lock();
+        try {
+            if (gameStarted) {
+                return;
+            }
+            restored = true;
+            playersLock.lock();
+            try {
+                for (Player player : snapshot.players) {
+                    players.add(player);
+                    if (player.resumeToken != null) {
+                        server.registerResumeToken(player.resumeToken, this);
+                    }
+                    detach(player.name, grace);
+                }
+                gameStarted = true;
+                battleInProgress = true;
+                matchSeed = snapshot.matchSeed;
+                matchesStarted = snapshot.matchesStarted;
+                currentTurnNumber = snapshot.turn;
+                if (created != null) {
+                    journal = created;
+                    server.journals.start(journal, name, matchSeed, players);
+                    journal.restore(currentTurnNumber, players);
+                }
+            } finally {
+                playersLock.unlock();
+            }
+        } finally {
+            turnLock.unlock();
+            if (!restored && created != null) {
+                server.journals.discard(created);
+            }
+        }
+
+        server.metrics.gamesStarted.increment();
+        logMessage("Partida restaurada no turno " + snapshot.turn + " com " + snapshot.players.size() +
+                " jogadores (semente " + snapshot.matchSeed + "); aguardando reconexões por " + grace + " s");
+        beginTurn();
+    }
+
+    private void processTurnActions() {
+        turnLock.lock();
+        try {
+            // Desconexões simultâneas podem chegar aqui depois do fim da partida
+            if (!battleInProgress) {
+                return;
+            }
+
+            // Calcular acoes dos jogadores
+            int expectedActions = getAlivePlayersCount();
+
+            boolean debug = isDebugEnabled();
+            if (debug) {
+                logDebug("Ações recebidas: " + currentTurnActions.size() + "/" + expectedActions);
+            }
+
+            if (currentTurnActions.size() < expectedActions) {
+                return;
+            }
+
+            long resolveStart = System.nanoTime();
+            metrics.recordActionWait(resolveStart - turnStartedAt);
+            if (debug) {
+                logDebug("Processando turno " + currentTurnNumber + " com " + currentTurnActions.size() + " ações");
+            }
+            cancelTurnDeadline();
+
+
+            StringBuilder turnResult = new StringBuilder("TURN_RESULT");
+            String turnResultText;
+            // Texto de cada ação na ordem de execução (modo STREAM)
+            java.util.List<String> actionResults = new ArrayList<>(currentTurnActions.size());
+
+            playersLock.lock();
+            try {
+                CombatRules combat = new CombatRules(players, CombatRules.turnRandom(matchSeed, currentTurnNumber));
+
+                // Organizar ações: na ordem do registro antes de ordenar, para o empate de
+                // agilidade não depender da ordem do mapa (mesma ordem do simulador)
+                ArrayList<PlayerAction> sortedActions = new ArrayList<>(currentTurnActions.size());
+                for (Player player : players) {
+                    PlayerAction action = currentTurnActions.get(player.name);
+                    if (action != null) {
+                        sortedActions.add(action);
+                    }
+                }
+                CombatRules.sortByPriority(sortedActions);
+
+                String effects = combat.processStatusEffects();
+                if (effects != null && debug) {
+                    logDebug("Efeitos de status processados: " + effects);
+                }
+
+                // Processar todas as ações
+                for (PlayerAction action : sortedActions) {
+                    Player actor = players.get(action.playerName);
+                    if (actor != null && actor.isAlive) {
+                        String result = combat.executePlayerAction(action);
+                        turnResult.append("|").append(result);
+                        actionResults.add(result);
+                        if (debug) {
+                            logDebug("Executada ação de " + action.playerName + ": " + action.actionType);
+                        }
+                    }
+                }
+
+                // Decrementar duração de efeitos
+                combat.endTurn();
+
+                turnResultText = turnResult.toString();
+                if (journal != null) {
+                    journal.turn(currentTurnNumber, sortedActions, players, turnResultText);
+                }
+            } finally {
+                playersLock.unlock();
+            }
+            metrics.recordTurnResolution(System.nanoTime() - resolveStart);
+
+            currentTurnActions.clear();
+            if (debug) {
+                logDebug("Ações do turno " + currentTurnNumber + " processadas");
+            }
+
+
+            if (server.config.turnResults == ServerConfig.TurnResults.STREAM) {
+                // Enviados depois de soltar o playersLock (o broadcast não roda sob ele):
+                // cada ação na ordem de execução, depois o estado e o fim do turno
+                for (String result : actionResults) {
+                    broadcastMessage("ACTION_RESULT|" + currentTurnNumber + "|" + result);
+                }
+                sendPlayersUpdate();
+                broadcastMessage("TURN_END|" + currentTurnNumber);
+            } else {
+                sendPlayersUpdate();
+                broadcastMessage(turnResultText);
+            }
+
+
+            if (!checkGameEnd()) {
+                currentTurnNumber++;
+                takeSnapshot();
+                server.getScheduler().schedule(this::beginTurn, 1000, TimeUnit.MILLISECONDS);
+            }
+
+
+            server.fireStateChanged();
+        } finally {
+            turnLock.unlock();
+        }
+
+        checkAutoStart();
+    }
+
+    private int getAlivePlayersCount() {
+        playersLock.lock();
+        try {
+            return players.getAliveCount();
+        } finally {
+            playersLock.unlock();
+        }
+    }
+
+    private boolean checkGameEnd() {
+        int aliveCount = getAlivePlayersCount();
+        if (aliveCount <= 1) {
+            battleInProgress = false;
+            gameStarted = false;
+
+            Player winner = null;
+            playersLock.lock();
+            try {
+                winner = players.firstAlive();
+            } finally {
+                playersLock.unlock();
+            }
+            if (journal != null) {
+                journal.end(currentTurnNumber, winner);
+                journal.close();
+                journal = null;
+            }
+            if (server.snapshots != null) {
+                server.snapshots.remove(name);
+            }
+
+            String endMessage = "GAME_END|" + (winner != null ? winner.name : "Empate");
+            broadcastMessage(endMessage);
+
+            logMessage("=== PARTIDA FINALIZADA ===");
+            logMessage("Vencedor: " + (winner != null ? winner.name : "Empate"));
+
+            server.metrics.gamesFinished.increment();
+            server.onGameEnded(this, winner != null ? winner.name : "Empate");
+
+            currentTurnActions.clear();
+            currentTurnNumber = 0;
+            playersLock.lock();
+            try {
+                // Jogadores que caíram durante a partida saem da sala (os que ainda
+                // podem voltar com RESUME ficam até o prazo)
+                players.removeIf(player -> {
+                    boolean gone = !members.containsKey(player.name) && !detached.containsKey(player.name);
+                    if (gone) {
+                        server.revokeResumeToken(player.resumeToken);
+                    }
+                    return gone;
+                });
+                for (Player player : players) {
+                    player.reset();
+                }
+            } finally {
+                playersLock.unlock();
+            }
+
+            return true;
+        }
+        return false;
+    }
+}
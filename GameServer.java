@@ -0,0 +1,345 @@
+import java.io.*;
+import java.net.*;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Motor do servidor: conexões, salas e agendamento, sem dependência de Swing/AWT
+public class GameServer {
+    static final String DEFAULT_ROOM = "Principal";
+    private static final int IDLE_READ_MARGIN_SECONDS = 5;
+
+    // Observadores do motor (ex.: a janela Swing)
+    interface Listener {
+        // Linhas já formatadas, em lotes, na thread do log
+        default void onLog(java.util.List<String> lines) {}
+        default void onStateChanged() {}
+        default void onGameEnded(GameRoom room, String winnerName) {}
+    }
+
+    final ServerConfig config;
+    final ServerMetrics metrics;
+    final ServerLog log;
+    // Diário das partidas; null com --journal-dir= vazio
+    final JournalWriter journals;
+    // Fotos das partidas em andamento; null com --snapshot-dir= vazio
+    final SnapshotStore snapshots;
+    final Matchmaker matchmaker;
+    private ServerSocket serverSocket;
+    private NioTransport nioTransport;
+    private ExecutorService clientExecutor;
+    private final Set<ClientHandler> connectedClients = ConcurrentHashMap.newKeySet();
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final java.util.List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService gameExecutor;
+    private final TimingWheel scheduler;
+    // Ficha do RESUME -> sala do jogador: a busca não passa por trava de sala nenhuma
+    private final Map<String, GameRoom> resumeTokens = new ConcurrentHashMap<>();
+    private final SecureRandom tokenRandom = new SecureRandom();
+
+    public GameServer(ServerConfig config) {
+        this(config, null);
+    }
+
+    // scheduledTasks: onde rodam as tarefas do agendador (null = game-workers). O Benchmarks
+    // passa um que descarta, para medir o turno sem o START_TURN e o prazo agendados depois
+    GameServer(ServerConfig config, Executor scheduledTasks) {
+        this.config = config;
+        this.log = new ServerLog(config, this::fireLog);
+        this.metrics = new ServerMetrics(this);
+        this.journals = config.journalDir.isEmpty() ? null
+                : new JournalWriter(this, java.nio.file.Paths.get(config.journalDir), config.journalFlushMillis);
+        this.snapshots = config.snapshotDir.isEmpty() ? null
+                : new SnapshotStore(this, java.nio.file.Paths.get(config.snapshotDir));
+        // Falha logo ao iniciar se o catálogo estiver ausente ou inválido
+        SkillCatalog.get();
+        this.gameExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "game-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Agendador único compartilhado por todas as salas (prazos de turno, contagens, atrasos)
+        this.scheduler = new TimingWheel(50, TimeUnit.MILLISECONDS, 512,
+                scheduledTasks != null ? scheduledTasks : gameExecutor);
+        if (config.pingIntervalSeconds > 0 || config.idleTimeoutSeconds > 0) {
+            scheduler.schedule(this::heartbeat, 1, TimeUnit.SECONDS);
+        }
+        this.matchmaker = new Matchmaker(this);
+        GameRoom defaultRoom = new GameRoom(this, DEFAULT_ROOM);
+        rooms.put(DEFAULT_ROOM, defaultRoom);
+        metrics.registerMBean();
+        metrics.registerRoom(defaultRoom);
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // Semente das regras de uma partida (enviada no GAME_START e gravada no diário).
+    // Com --seed depende só da base, da sala e do número da partida nela, então a
+    // sequência de cada sala se repete mesmo com outras salas começando no meio.
+    long nextMatchSeed(String roomName, int match) {
+        if (config.seed == null) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        return new SplittableRandom(config.seed + roomName.hashCode() * 0x9E3779B97F4A7C15L + match).nextLong();
+    }
+
+    // Uma varredura por segundo no agendador compartilhado (nenhum timer por conexão):
+    // PING para quem chegou a hora e desconexão de quem ficou mudo (conexão meio aberta)
+    private void heartbeat() {
+        try {
+            long now = System.nanoTime();
+            for (ClientHandler client : connectedClients) {
+                // Um cliente com erro (ao fechar por inatividade, por exemplo) não tira os outros da varredura
+                try {
+                    client.heartbeat(now);
+                } catch (RuntimeException e) {
+                    logError("Erro no batimento de " + (client.getPlayerName() != null ? client.getPlayerName() : "Desconhecido") +
+                             ": " + e);
+                }
+            }
+        } finally {
+            scheduler.schedule(this::heartbeat, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    TimingWheel getScheduler() {
+        return scheduler;
+    }
+
+    Collection<GameRoom> getRooms() {
+        return rooms.values();
+    }
+
+    Set<ClientHandler> getConnectedClients() {
+        return connectedClients;
+    }
+
+    // ServerSocket e conexões
+    void start() {
+        startMetricsEndpoint();
+        restoreMatches();
+
+        if (config.transport == ServerConfig.Transport.NIO) {
+            startNioServer();
+            return;
+        }
+
+        if (config.transport == ServerConfig.Transport.VIRTUAL) {
+            clientExecutor = newVirtualThreadExecutor();
+        }
+
+        try {
+            serverSocket = new ServerSocket(config.port);
+            logMessage("Servidor iniciado na porta " + config.port +
+                      (clientExecutor != null ? " (threads virtuais)" : ""));
+
+            Thread acceptThread = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket clientSocket = serverSocket.accept();
+                        clientSocket.setKeepAlive(true);
+                        // Como no NIO: mensagens curtas seguidas (ACTION_RESULT...) não esperam
+                        // o ACK da anterior
+                        clientSocket.setTcpNoDelay(true);
+                        if (config.idleTimeoutSeconds > 0) {
+                            // Reserva para a varredura: o leitor não fica preso num socket mudo
+                            // mesmo se o agendador atrasar
+                            clientSocket.setSoTimeout((config.idleTimeoutSeconds + IDLE_READ_MARGIN_SECONDS) * 1000);
+                        }
+                        ClientHandler clientHandler = new ClientHandler(this, clientSocket);
+                        connectedClients.add(clientHandler);
+                        // Leitor e escritor: o broadcast só enfileira e nunca bloqueia no socket
+                        // (custa a segunda thread por conexão; o NIO não tem nenhuma)
+                        runClientTask(clientHandler, "client-reader");
+                        runClientTask(clientHandler::writeLoop, "client-writer");
+                    } catch (IOException e) {
+                        if (!serverSocket.isClosed()) {
+                            logWarn("Erro ao aceitar conexão: " + e.getMessage());
+                        }
+                    }
+                }
+            }, "accept");
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+
+        } catch (IOException e) {
+            logError("Erro ao iniciar servidor: " + e.getMessage());
+        }
+    }
+
+    // Partidas que estavam em andamento quando o servidor parou; antes de aceitar conexões
+    private void restoreMatches() {
+        if (snapshots == null) {
+            return;
+        }
+        for (MatchSnapshot snapshot : snapshots.loadAll()) {
+            GameRoom room = rooms.get(snapshot.room);
+            if (room == null) {
+                room = createRoom(snapshot.room, snapshot.turnTimeoutSeconds);
+            }
+            if (room != null) {
+                room.restore(snapshot);
+            }
+        }
+    }
+
+    private void startMetricsEndpoint() {
+        if (config.metricsPort == 0) {
+            return;
+        }
+        try {
+            metrics.startHttp(config.metricsPort);
+            logMessage("Métricas em http://127.0.0.1:" + config.metricsPort + "/metrics");
+        } catch (IOException e) {
+            logError("Erro ao iniciar métricas na porta " + config.metricsPort + ": " + e.getMessage());
+        }
+    }
+
+    // Leitor e escritor de cada cliente: thread virtual ou thread comum
+    private void runClientTask(Runnable task, String threadName) {
+        if (clientExecutor != null) {
+            clientExecutor.execute(task);
+        } else {
+            Thread thread = new Thread(task, threadName);
+            thread.start();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() existe a partir do Java 21
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logWarn("Threads virtuais indisponíveis neste Java (requer 21+), usando threads comuns");
+            return null;
+        }
+    }
+
+    private void startNioServer() {
+        try {
+            nioTransport = new NioTransport(this, config.port, config.ioThreads);
+            nioTransport.start();
+            logMessage("Servidor NIO iniciado na porta " + config.port + " com " + config.ioThreads + " threads de I/O");
+        } catch (IOException e) {
+            logError("Erro ao iniciar servidor: " + e.getMessage());
+        }
+    }
+
+    ClientHandler createClientHandler(NioTransport.Connection connection) {
+        ClientHandler clientHandler = new ClientHandler(this, connection);
+        connectedClients.add(clientHandler);
+        return clientHandler;
+    }
+
+    void removeClient(ClientHandler clientHandler) {
+        connectedClients.remove(clientHandler);
+    }
+
+    void logMessage(String message) {
+        log.info(message);
+    }
+
+    // Detalhe de cada ação e turno: só com --log-level=debug
+    void logDebug(String message) {
+        log.debug(message);
+    }
+
+    void logWarn(String message) {
+        log.warn(message);
+    }
+
+    void logError(String message) {
+        log.error(message);
+    }
+
+    private void fireLog(java.util.List<String> lines) {
+        for (Listener listener : listeners) {
+            listener.onLog(lines);
+        }
+    }
+
+    void fireStateChanged() {
+        for (Listener listener : listeners) {
+            listener.onStateChanged();
+        }
+    }
+
+    void onGameEnded(GameRoom room, String winnerName) {
+        for (Listener listener : listeners) {
+            listener.onGameEnded(room, winnerName);
+        }
+    }
+
+    // 128 bits aleatórios em base64 de URL (sem "|" nem ","), válidos enquanto o jogador estiver na sala
+    String issueResumeToken(GameRoom room) {
+        byte[] bytes = new byte[16];
+        tokenRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        resumeTokens.put(token, room);
+        return token;
+    }
+
+    // Partida restaurada: a ficha veio da foto
+    void registerResumeToken(String token, GameRoom room) {
+        resumeTokens.put(token, room);
+    }
+
+    void revokeResumeToken(String token) {
+        if (token != null) {
+            resumeTokens.remove(token);
+        }
+    }
+
+    GameRoom findResumeRoom(String token) {
+        return resumeTokens.get(token);
+    }
+
+    GameRoom getRoom(String roomName) {
+        return rooms.get(roomName);
+    }
+
+    GameRoom createRoom(String roomName, int turnTimeoutSeconds) {
+        GameRoom room = new GameRoom(this, roomName, turnTimeoutSeconds);
+        if (rooms.putIfAbsent(roomName, room) != null) {
+            return null;
+        }
+        metrics.registerRoom(room);
+        logMessage("Sala criada: " + roomName);
+        fireStateChanged();
+        return room;
+    }
+
+    void removeRoomIfEmpty(GameRoom room) {
+        if (!room.name.equals(DEFAULT_ROOM) && room.isEmpty() && !room.isGameStarted()) {
+            if (rooms.remove(room.name, room)) {
+                metrics.unregisterRoom(room);
+                room.spectators.close();
+                logMessage("Sala removida: " + room.name);
+            }
+        }
+    }
+
+    String getRoomList() {
+        StringBuilder roomList = new StringBuilder("ROOM_LIST");
+        for (GameRoom room : rooms.values()) {
+            roomList.append("|").append(room.getSummary());
+        }
+        return roomList.toString();
+    }
+
+    // Inicia todas as salas com jogadores suficientes
+    int startReadyRooms() {
+        int started = 0;
+        for (GameRoom room : rooms.values()) {
+            if (!room.fromQueue && room.startGame()) {
+                started++;
+            }
+        }
+        if (started > 0) {
+            fireStateChanged();
+        }
+        return started;
+    }
+}
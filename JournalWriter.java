@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Abre o diário de cada partida (um arquivo por partida em --journal-dir) e faz o
+// commit em grupo: uma thread força para o disco, a cada --journal-flush ms, todos os
+// diários com gravações pendentes. Se o processo cair nada se perde (as páginas
+// mapeadas ficam com o sistema); se a máquina cair, no máximo o último intervalo.
+public class JournalWriter {
+    static final String EXTENSION = ".rpgj";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final GameServer server;
+    private final Path directory;
+    private final long flushNanos;
+    private final Set<MatchJournal> open = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    // Escritor e gancho de encerramento não forçam ao mesmo tempo
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    JournalWriter(GameServer server, Path directory, long flushMillis) {
+        this.server = server;
+        this.directory = directory;
+        this.flushNanos = flushMillis * 1_000_000L;
+
+        Thread thread = new Thread(this::run, "journal-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::syncAll, "journal-shutdown"));
+    }
+
+    // Diretório, arquivo e primeiro trecho mapeado: a sala chama antes de pegar as
+    // travas, então o disco não segura o início da partida; null se não deu para criar
+    MatchJournal create(String room) {
+        long now = System.currentTimeMillis();
+        String fileName = room.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + LocalDateTime.now().format(FILE_TIME) +
+                "-" + sequence.incrementAndGet() + EXTENSION;
+        try {
+            Files.createDirectories(directory);
+            return new MatchJournal(directory.resolve(fileName), now);
+        } catch (IOException e) {
+            server.logWarn("Diário da partida indisponível (" + fileName + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Sob as travas da sala: o cabeçalho só é copiado para a memória mapeada
+    void start(MatchJournal journal, String room, long seed, PlayerRegistry players) {
+        journal.header(room, seed, players);
+        open.add(journal);
+    }
+
+    // A partida não começou (outro chamador chegou antes): o arquivo vazio sai
+    void discard(MatchJournal journal) {
+        try {
+            journal.discard();
+        } catch (IOException e) {
+            server.logWarn("Diário " + journal.path + " não foi apagado: " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (true) {
+            LockSupport.parkNanos(flushNanos);
+            syncAll();
+        }
+    }
+
+    void syncAll() {
+        syncLock.lock();
+        try {
+            for (MatchJournal journal : open) {
+                try {
+                    if (journal.sync()) {
+                        open.remove(journal);
+                    }
+                } catch (IOException e) {
+                    open.remove(journal);
+                    server.logWarn("Diário " + journal.path + " interrompido: " + e.getMessage());
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,633 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Gerador de carga: N jogadores simulados (GameClient sem janela) entram em salas de
+// --room-size, jogam partidas seguidas com tempo de reflexão e relatam entradas/s,
+// latência do turno (ACTION -> TURN_RESULT ou TURN_END) e erros. O servidor precisa do início
+// automático, ex.: java RpgServer --headless --start-countdown=3
+// Exemplo: java LoadGenerator --players=600 --room-size=6 --think=300 --duration=60
+// --storm-at=S: aos S segundos todas as conexões caem juntas e voltam com RESUME
+// --queue: entra pela fila de partidas (QUEUE) e volta para a fila a cada GAME_END
+// --spectators=N: N espectadores (SPECTATE) em cada sala carga-N; --stalled-spectators=M
+// deles não leem o socket (a fila de espectador do servidor pula quadros)
+// --idle=N: em vez de jogadores, N conexões ociosas (só HELLO) para contar quantas o
+// servidor sustenta, ex.: java -Xmx64m RpgServer --headless --transport=nio
+public class LoadGenerator {
+    // Modo ocioso: prazo de cada conexão/resposta e falhas seguidas que encerram a abertura
+    private static final int IDLE_TIMEOUT_MILLIS = 3000;
+    private static final int IDLE_MAX_FAILURES = 10;
+
+    private String host = "localhost";
+    private int port = 12345;
+    private int players = 60;
+    private int roomSize = GameRoom.MAX_PLAYERS;
+    private String roomPrefix = "carga";
+    private long thinkMillis = 200;
+    private long thinkJitterMillis = 100;
+    private int rampSeconds = 5;
+    private int durationSeconds = 30;
+    private int reportSeconds = 5;
+    private boolean binary = false;
+    private long seed = System.nanoTime();
+    private int stormSeconds = -1;
+    private boolean queue = false;
+    private int spectatorsPerRoom = 0;
+    private int stalledPerRoom = 0;
+    private int idleConnections = 0;
+
+    // Métricas somadas por todas as threads de leitura
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder actionsSent = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder joinRejections = new LongAdder();
+    private final LongAdder roomRejections = new LongAdder();
+    private final LongAdder connectionsLost = new LongAdder();
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder resumeFailures = new LongAdder();
+    private final LongAdder spectating = new LongAdder();
+    private final LongAdder spectatorTurns = new LongAdder();
+    private final LongAdder spectateRejections = new LongAdder();
+    private final LatencyHistogram joinLatency = new LatencyHistogram();
+    private final LatencyHistogram resumeLatency = new LatencyHistogram();
+    private final LatencyHistogram turnLatency = new LatencyHistogram();
+    private final LatencyHistogram firstResultLatency = new LatencyHistogram();
+    private final AtomicLong lastJoinNanos = new AtomicLong();
+
+    private final java.util.List<Bot> bots = new CopyOnWriteArrayList<>();
+    private final java.util.List<Watcher> watchers = new CopyOnWriteArrayList<>();
+    private final java.util.List<java.net.Socket> stalled = new CopyOnWriteArrayList<>();
+    private TimingWheel scheduler;
+    private volatile boolean stopping = false;
+    private long startNanos;
+
+    // Um jogador simulado; os eventos chegam na thread de leitura da própria conexão
+    private final class Bot implements GameClient.Listener {
+        final int seat;
+        final String name;
+        final String playerClass;
+        final String room;
+        final GameClient client = new GameClient(this, Runnable::run, false);
+        private final SplittableRandom random;
+        private volatile long joinSentAt;
+        private volatile long resumeSentAt;
+        private volatile long actionSentAt;
+        private volatile int actionTurn;
+        private volatile int turn;
+        private int firstResultTurn;
+
+        Bot(int index, SplittableRandom random) {
+            String[] classNames = SkillCatalog.get().getClassNames();
+            this.seat = index % roomSize;
+            this.name = "bot" + index;
+            this.playerClass = classNames[random.nextInt(classNames.length)];
+            this.room = roomPrefix + "-" + (index / roomSize);
+            this.random = random;
+        }
+
+        void start() {
+            try {
+                client.connect(host, port, binary);
+            } catch (IOException e) {
+                connectFailures.increment();
+                return;
+            }
+            connected.increment();
+            joinSentAt = System.nanoTime();
+            if (queue) {
+                client.queue(name, playerClass);
+                return;
+            }
+            // Quem chega primeiro cria a sala; para os outros vem ROOM_REJECTED|Sala já existe
+            client.createRoom(room);
+            client.joinRoom(room, name, playerClass);
+        }
+
+        @Override
+        public void onQueueRejected(String reason) {
+            joinRejections.increment();
+        }
+
+        @Override
+        public void onJoinSuccess() {
+            long now = System.nanoTime();
+            joins.increment();
+            joinLatency.record((now - joinSentAt) / 1000);
+            lastJoinNanos.accumulateAndGet(now, Math::max);
+        }
+
+        @Override
+        public void onJoinRejected(String reason) {
+            joinRejections.increment();
+        }
+
+        // Queda simulada: a conexão fecha e uma nova volta pela ficha, sem passar pelo lobby
+        void dropAndResume() {
+            if (client.getResumeToken() == null) return;
+            // A ação em andamento se perde com a conexão; não entra na latência do turno
+            actionSentAt = 0;
+            resumeSentAt = System.nanoTime();
+            try {
+                client.resume(host, port, binary);
+            } catch (IOException e) {
+                resumeFailures.increment();
+            }
+        }
+
+        @Override
+        public void onResumed() {
+            resumes.increment();
+            resumeLatency.record((System.nanoTime() - resumeSentAt) / 1000);
+        }
+
+        @Override
+        public void onResumeRejected(String reason) {
+            resumeFailures.increment();
+        }
+
+        @Override
+        public void onRoomMessage(String[] parts) {
+            if (parts[0].equals("ROOM_REJECTED") && !(parts.length > 1 && parts[1].equals("Sala já existe"))) {
+                roomRejections.increment();
+            }
+        }
+
+        // A ação é escolhida com o estado do início do turno e enviada depois da reflexão
+        @Override
+        public void onTurnStart(int turnNumber, int timeLimit) {
+            turn = turnNumber;
+            GameClient.Player me = client.getCurrentPlayer();
+            if (me == null || !me.isAlive) return;
+
+            Runnable action = chooseAction(me);
+            long think = thinkMillis + (thinkJitterMillis > 0 ? random.nextLong(thinkJitterMillis + 1) : 0);
+            scheduler.schedule(() -> {
+                if (stopping || turn != turnNumber) return;
+                actionTurn = turnNumber;
+                actionSentAt = System.nanoTime();
+                action.run();
+                actionsSent.increment();
+            }, think, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void onTurnResult(String[] parts) {
+            turnFinished();
+        }
+
+        // --turn-results=stream: a primeira ACTION_RESULT do turno e o TURN_END
+        @Override
+        public void onActionResult(int turnNumber, String result) {
+            long sentAt = actionSentAt;
+            if (sentAt != 0 && actionTurn == turnNumber && firstResultTurn != turnNumber) {
+                firstResultTurn = turnNumber;
+                firstResultLatency.record((System.nanoTime() - sentAt) / 1000);
+            }
+        }
+
+        @Override
+        public void onTurnEnd(int turnNumber) {
+            turnFinished();
+        }
+
+        private void turnFinished() {
+            long sentAt = actionSentAt;
+            if (sentAt != 0 && actionTurn == turn) {
+                turnLatency.record((System.nanoTime() - sentAt) / 1000);
+                turns.increment();
+            }
+            actionSentAt = 0;
+        }
+
+        @Override
+        public void onGameEnd(String winner) {
+            if (queue) {
+                // Sem assento fixo: conta a partida quem venceu (ou o primeiro no empate)
+                if (winner.equals(name) || (winner.equals("Empate") && client.getPlayers().get(0).name.equals(name))) {
+                    gamesFinished.increment();
+                }
+                long think = thinkMillis + (thinkJitterMillis > 0 ? random.nextLong(thinkJitterMillis + 1) : 0);
+                scheduler.schedule(() -> {
+                    if (stopping) return;
+                    joinSentAt = System.nanoTime();
+                    client.queue(name, playerClass);
+                }, think, TimeUnit.MILLISECONDS);
+                return;
+            }
+            // Uma contagem por sala
+            if (seat == 0) {
+                gamesFinished.increment();
+            }
+        }
+
+        @Override
+        public void onConnectionLost() {
+            if (!stopping) {
+                connectionsLost.increment();
+            }
+        }
+
+        // Paralisado manda "paralyzed"; senão habilidade sorteada que caiba no MP contra
+        // inimigo vivo sorteado; sem MP ou sem alvo, defende
+        private Runnable chooseAction(GameClient.Player me) {
+            if (me.hasAnyStatusEffect(StatusEffect.PARALYZING)) {
+                return client::sendParalyzed;
+            }
+
+            java.util.List<String> enemies = new ArrayList<>();
+            for (GameClient.Player player : client.getPlayers()) {
+                if (player != me && player.isAlive) {
+                    enemies.add(player.name);
+                }
+            }
+            java.util.List<SkillInfo> affordable = new ArrayList<>();
+            for (SkillInfo skill : SkillCatalog.get().getSkills(me.playerClass)) {
+                if (skill.mpCost <= me.mp) {
+                    affordable.add(skill);
+                }
+            }
+            if (enemies.isEmpty() || affordable.isEmpty()) {
+                return client::defend;
+            }
+
+            String target = enemies.get(random.nextInt(enemies.size()));
+            SkillInfo skill = affordable.get(random.nextInt(affordable.size()));
+            return () -> client.attack(target, skill);
+        }
+    }
+
+    // Espectador de uma sala carga-N: só conta os turnos (TURN_RESULT ou TURN_END) que chegam
+    private final class Watcher implements GameClient.Listener {
+        private static final int SPECTATE_ATTEMPTS = 10;
+        final String room;
+        final GameClient client = new GameClient(this, Runnable::run, false);
+        private int attempts = 0;
+
+        Watcher(String room) {
+            this.room = room;
+        }
+
+        void start() {
+            try {
+                client.connect(host, port, binary);
+            } catch (IOException e) {
+                connectFailures.increment();
+                return;
+            }
+            client.spectate(room);
+        }
+
+        @Override
+        public void onSpectating(String spectatedRoom) {
+            spectating.increment();
+        }
+
+        // A sala pode ainda não ter sido criada pelo primeiro jogador
+        @Override
+        public void onSpectateRejected(String reason) {
+            if (reason.equals("Sala não existe") && ++attempts < SPECTATE_ATTEMPTS) {
+                scheduler.schedule(() -> client.spectate(room), 200, TimeUnit.MILLISECONDS);
+                return;
+            }
+            spectateRejections.increment();
+        }
+
+        @Override
+        public void onTurnResult(String[] parts) {
+            spectatorTurns.increment();
+        }
+
+        @Override
+        public void onTurnEnd(int turnNumber) {
+            spectatorTurns.increment();
+        }
+
+        @Override
+        public void onConnectionLost() {
+            if (!stopping) {
+                connectionsLost.increment();
+            }
+        }
+    }
+
+    // Conecta, pede SPECTATE e nunca lê: com o buffer de recepção mínimo a fila do
+    // servidor enche logo
+    private void startStalled(String room) {
+        try {
+            java.net.Socket socket = new java.net.Socket();
+            socket.setReceiveBufferSize(1024);
+            socket.connect(new java.net.InetSocketAddress(host, port));
+            socket.getOutputStream().write(("SPECTATE|" + room + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            stalled.add(socket);
+        } catch (IOException e) {
+            connectFailures.increment();
+        }
+    }
+
+    private void run() throws InterruptedException {
+        scheduler = new TimingWheel(10, TimeUnit.MILLISECONDS, 512, Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "load-think");
+            thread.setDaemon(true);
+            return thread;
+        }));
+
+        int rooms = (players + roomSize - 1) / roomSize;
+        System.out.println("[LOAD] " + players + " jogadores" + (queue ? " pela fila de partidas" : " em " + rooms + " salas de " + roomSize) +
+                " -> " + host + ":" + port + (binary ? " (binário)" : "") + ", reflexão " + thinkMillis +
+                "+" + thinkJitterMillis + " ms, rampa " + rampSeconds + " s, duração " + durationSeconds + " s, semente " + seed);
+
+        long start = startNanos = System.nanoTime();
+        // Conexões espalhadas pela rampa numa thread própria; o relatório segue na main
+        Thread ramp = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < players && !stopping; i++) {
+                Bot bot = new Bot(i, random.split());
+                bots.add(bot);
+                bot.start();
+                // Sala completa: chegam os espectadores dela
+                if (!queue && (bot.seat == roomSize - 1 || i == players - 1)) {
+                    for (int w = 0; w < spectatorsPerRoom; w++) {
+                        if (w < stalledPerRoom) {
+                            startStalled(bot.room);
+                            continue;
+                        }
+                        Watcher watcher = new Watcher(bot.room);
+                        watchers.add(watcher);
+                        watcher.start();
+                    }
+                }
+                long due = start + TimeUnit.SECONDS.toNanos(rampSeconds) * (i + 1) / players;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }, "load-ramp");
+        ramp.setDaemon(true);
+        ramp.start();
+
+        if (stormSeconds >= 0) {
+            scheduler.schedule(() -> {
+                System.out.println("[LOAD] Tempestade de reconexões: " + bots.size() + " conexões caem agora");
+                for (Bot bot : bots) {
+                    bot.client.disconnect();
+                }
+                for (Bot bot : bots) {
+                    bot.dropAndResume();
+                }
+            }, stormSeconds, TimeUnit.SECONDS);
+        }
+
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long previousJoins = 0;
+        long previousTurns = 0;
+        long previousReport = start;
+        while (System.nanoTime() < end) {
+            long next = Math.min(end, previousReport + TimeUnit.SECONDS.toNanos(reportSeconds));
+            Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - System.nanoTime())));
+
+            long now = System.nanoTime();
+            double interval = (now - previousReport) / 1e9;
+            long joinCount = joins.sum();
+            long turnCount = turns.sum();
+            System.out.printf("[LOAD] %3.0f s  conexões %d  entradas %d (%.1f/s)  turnos %.1f/s  erros %d  turno %s%n",
+                    (now - start) / 1e9, connected.sum(), joinCount, (joinCount - previousJoins) / interval,
+                    (turnCount - previousTurns) / interval, errorCount(), turnLatency.summary());
+            previousJoins = joinCount;
+            previousTurns = turnCount;
+            previousReport = now;
+        }
+
+        stopping = true;
+        ramp.join(1000);
+        for (Bot bot : bots) {
+            bot.client.disconnect();
+        }
+        for (Watcher watcher : watchers) {
+            watcher.client.disconnect();
+        }
+        for (java.net.Socket socket : stalled) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+            }
+        }
+        scheduler.stop();
+        printSummary(System.nanoTime() - start);
+    }
+
+    // Abre uma conexão por vez (HELLO -> HELLO_OK) até --idle ou até o servidor parar de
+    // responder, segura todas por --duration e confere com PING quais ainda respondem.
+    // Chegar ao limite é o resultado esperado, não erro.
+    private void runIdle() throws InterruptedException {
+        System.out.println("[LOAD] " + idleConnections + " conexões ociosas -> " + host + ":" + port +
+                ", duração " + durationSeconds + " s");
+        java.util.List<java.net.Socket> sockets = new ArrayList<>(idleConnections);
+        long start = System.nanoTime();
+        long previousReport = start;
+        int failures = 0;
+        int consecutive = 0;
+        while (sockets.size() < idleConnections && consecutive < IDLE_MAX_FAILURES) {
+            java.net.Socket socket = new java.net.Socket();
+            try {
+                socket.connect(new java.net.InetSocketAddress(host, port), IDLE_TIMEOUT_MILLIS);
+                socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+                // Só o connect não basta: o SO completa conexões na fila de aceite
+                // mesmo com o servidor sem atender
+                if (!exchange(socket, "HELLO|text", "HELLO_OK")) {
+                    throw new EOFException("Conexão fechada antes do HELLO_OK");
+                }
+                sockets.add(socket);
+                consecutive = 0;
+            } catch (IOException e) {
+                closeQuietly(socket);
+                failures++;
+                consecutive++;
+            }
+            long now = System.nanoTime();
+            if (now - previousReport >= TimeUnit.SECONDS.toNanos(reportSeconds)) {
+                System.out.printf("[LOAD] %3.0f s  conexões ociosas %d  falhas %d%n",
+                        (now - start) / 1e9, sockets.size(), failures);
+                previousReport = now;
+            }
+        }
+        long openNanos = System.nanoTime() - start;
+        System.out.printf("[LOAD] %d conexões abertas em %.1f s; segurando por %d s%n",
+                sockets.size(), openNanos / 1e9, durationSeconds);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+
+        // Servidor travado: depois de algumas sem resposta o resto conta como perdido
+        int alive = 0;
+        consecutive = 0;
+        for (java.net.Socket socket : sockets) {
+            if (consecutive < IDLE_MAX_FAILURES) {
+                try {
+                    if (exchange(socket, "PING|idle", "PONG|idle")) {
+                        alive++;
+                        consecutive = 0;
+                    } else {
+                        consecutive++;
+                    }
+                } catch (IOException e) {
+                    consecutive++;
+                }
+            }
+            closeQuietly(socket);
+        }
+
+        System.out.println();
+        System.out.println("=== Resumo das conexões ociosas ===");
+        System.out.printf("Pedidas: %d, abertas: %d (%.1f s), falhas ao abrir: %d%s%n", idleConnections,
+                sockets.size(), openNanos / 1e9, failures,
+                consecutive >= IDLE_MAX_FAILURES || sockets.size() < idleConnections ? " (limite do servidor)" : "");
+        System.out.printf("Respondendo depois de %d s: %d%n", durationSeconds, alive);
+    }
+
+    // Envia uma linha de texto e lê até a resposta esperada, pulando o que vier antes
+    // (PING do batimento); false se a conexão fechou
+    private static boolean exchange(java.net.Socket socket, String request, String expected) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((request + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b != '\n') {
+                line.append((char) b);
+            } else if (line.toString().startsWith(expected)) {
+                return true;
+            } else {
+                line.setLength(0);
+            }
+        }
+        return false;
+    }
+
+    private static void closeQuietly(java.net.Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+        }
+    }
+
+    private long errorCount() {
+        return connectFailures.sum() + joinRejections.sum() + roomRejections.sum() + connectionsLost.sum() +
+                resumeFailures.sum() + spectateRejections.sum();
+    }
+
+    private void printSummary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long joinCount = joins.sum();
+        long lastJoin = lastJoinNanos.get();
+        // Entradas/s na rampa: até a última entrada, não até o fim do teste
+        double joinSeconds = lastJoin != 0 ? Math.max(0.001, (lastJoin - startNanos) / 1e9) : seconds;
+
+        System.out.println();
+        System.out.println("=== Resumo da carga ===");
+        System.out.printf("Duração: %.1f s, jogadores: %d, conexões abertas: %d%n", seconds, players, connected.sum());
+        System.out.printf("Entradas: %d (%.1f/s) latência %s%s%n", joinCount, joinCount / joinSeconds,
+                queue ? "(QUEUE -> JOIN_SUCCESS, espera na fila) " : "", joinLatency.summary());
+        System.out.printf("Turnos medidos: %d (%.1f/s) latência ACTION -> TURN_RESULT %s%n",
+                turns.sum(), turns.sum() / seconds, turnLatency.summary());
+        if (firstResultLatency.getCount() > 0) {
+            System.out.printf("Primeira ACTION_RESULT do turno (--turn-results=stream): latência %s%n",
+                    firstResultLatency.summary());
+        }
+        System.out.printf("Ações enviadas: %d, partidas concluídas: %d%n", actionsSent.sum(), gamesFinished.sum());
+        if (stormSeconds >= 0) {
+            System.out.printf("Retomadas: %d (falhas %d) latência RESUME -> RESUME_OK %s%n",
+                    resumes.sum(), resumeFailures.sum(), resumeLatency.summary());
+        }
+        if (spectatorsPerRoom > 0) {
+            System.out.printf("Espectadores: %d assistindo (%d sem ler o socket), %d resultados de turno recebidos%n",
+                    spectating.sum(), stalled.size(), spectatorTurns.sum());
+        }
+        System.out.printf("Erros: %d (conexão recusada %d, entrada rejeitada %d, sala rejeitada %d, conexão perdida %d, " +
+                        "retomada falhou %d, espectador rejeitado %d)%n",
+                errorCount(), connectFailures.sum(), joinRejections.sum(), roomRejections.sum(), connectionsLost.sum(),
+                resumeFailures.sum(), spectateRejections.sum());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = eq >= 0 ? arg.substring(0, eq) : arg;
+            String value = eq >= 0 ? arg.substring(eq + 1) : "";
+            switch (key) {
+                case "--host":
+                    generator.host = value;
+                    break;
+                case "--port":
+                    generator.port = Integer.parseInt(value);
+                    break;
+                case "--players":
+                    generator.players = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--room-size":
+                    generator.roomSize = Integer.parseInt(value);
+                    if (generator.roomSize < GameRoom.MIN_PLAYERS || generator.roomSize > GameRoom.MAX_PLAYERS) {
+                        throw new IllegalArgumentException("Jogadores por sala: " + GameRoom.MIN_PLAYERS + " a " + GameRoom.MAX_PLAYERS);
+                    }
+                    break;
+                case "--room-prefix":
+                    generator.roomPrefix = value;
+                    break;
+                case "--think":
+                    generator.thinkMillis = Math.max(0, Long.parseLong(value));
+                    break;
+                case "--think-jitter":
+                    generator.thinkJitterMillis = Math.max(0, Long.parseLong(value));
+                    break;
+                case "--ramp":
+                    generator.rampSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--duration":
+                    generator.durationSeconds = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--report":
+                    generator.reportSeconds = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--binary":
+                    generator.binary = true;
+                    break;
+                case "--seed":
+                    generator.seed = Long.parseLong(value);
+                    break;
+                case "--queue":
+                    generator.queue = true;
+                    break;
+                case "--spectators":
+                    generator.spectatorsPerRoom = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--stalled-spectators":
+                    generator.stalledPerRoom = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--storm-at":
+                    generator.stormSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--idle":
+                    generator.idleConnections = Math.max(1, Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        if (generator.idleConnections > 0) {
+            generator.runIdle();
+            return;
+        }
+        generator.run();
+        // Código 1 quando houve erro: serve de verificação num script
+        System.exit(generator.errorCount() > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,275 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Diário de uma partida: registros binários curtos acrescentados no fim de um arquivo
+// mapeado em memória. A sala grava sob a trava do turno (só uma cópia para a memória,
+// sem chamada de sistema); o force() para o disco é feito em grupo pelo JournalWriter.
+// Registro: tipo (1 byte), tamanho do conteúdo (2 bytes), conteúdo. Tipo 0 = fim.
+public class MatchJournal {
+    static final int MAGIC = 0x524A4E31; // "RJN1"
+    // 2: sorte das regras derivada por turno (CombatRules.turnRandom)
+    // 3: máscara de efeitos com 64 bits
+    static final byte VERSION = 3;
+    static final byte HEADER = 'H';
+    static final byte ACTION = 'A';
+    static final byte LEAVE = 'X';
+    static final byte TURN = 'T';
+    static final byte END = 'E';
+    // Partida restaurada de uma foto: estado de todos no início do turno
+    static final byte RESTORE = 'R';
+    // Tipos de ação conhecidos viram um byte; os outros vão por extenso
+    static final String[] ACTION_TYPES = {"attack", "defense", "item", "paralyzed", "skip"};
+    static final byte OTHER_ACTION = -1;
+    // Texto vindo do cliente (alvo, item) é cortado: nenhum nome válido chega perto
+    static final int MAX_STRING = 1024;
+    private static final int CHUNK = 64 * 1024;
+
+    final Path path;
+    private final FileChannel channel;
+    private final long startMillis;
+    // Entre a sala (grava) e o JournalWriter (força); nunca fica presa durante o force()
+    private final ReentrantLock lock = new ReentrantLock();
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+    private MappedByteBuffer buffer;
+    private long bufferStart = 0;
+    // Trechos já cheios que ainda não foram forçados para o disco
+    private final java.util.List<MappedByteBuffer> retired = new ArrayList<>();
+    private boolean dirty = false;
+    private boolean closed = false;
+    private IOException failure;
+
+    MatchJournal(Path path, long startMillis) throws IOException {
+        this.path = path;
+        this.startMillis = startMillis;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK);
+    }
+
+    // Sala, semente e jogadores na ordem do registro (a ordem em que as regras percorrem)
+    void header(String room, long seed, PlayerRegistry players) {
+        lock.lock();
+        try {
+            begin(HEADER);
+            record.putInt(MAGIC).put(VERSION).putLong(startMillis).putLong(seed);
+            putString(room);
+            record.put((byte) players.size());
+            for (Player player : players) {
+                record.put((byte) player.id);
+                putString(player.name);
+                putString(player.playerClass);
+            }
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ação aceita no turno (inclusive a padrão do prazo e o "skip" de quem caiu)
+    void action(int turn, Player actor, PlayerAction action) {
+        lock.lock();
+        try {
+            begin(ACTION);
+            record.putInt(turn).putInt(elapsedMillis()).put((byte) actor.id).putShort((short) action.priority);
+            byte type = actionCode(action.actionType);
+            record.put(type);
+            if (type == OTHER_ACTION) {
+                putString(action.actionType);
+            }
+            putString(action.target != null ? action.target : "");
+            record.putShort((short) (action.skillInfo != null ? action.skillInfo.id : -1));
+            putString(type == 2 && action.skill != null ? action.skill : "");
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Desconexão durante a batalha: o jogador é dado como morto fora das regras
+    void leave(int turn, Player player) {
+        lock.lock();
+        try {
+            begin(LEAVE);
+            record.putInt(turn).putInt(elapsedMillis()).put((byte) player.id);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ordem de execução, hash do TURN_RESULT e o estado de cada jogador depois do turno.
+    // Chamado sob o playersLock da sala.
+    void turn(int turn, java.util.List<PlayerAction> order, PlayerRegistry players, String result) {
+        lock.lock();
+        try {
+            begin(TURN);
+            record.putInt(turn).putInt(elapsedMillis()).putInt(result.hashCode());
+            record.put((byte) order.size());
+            for (PlayerAction action : order) {
+                Player actor = players.get(action.playerName);
+                record.put((byte) (actor != null ? actor.id : -1));
+            }
+            putState(players);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Primeiro registro depois do cabeçalho numa partida restaurada
+    void restore(int turn, PlayerRegistry players) {
+        lock.lock();
+        try {
+            begin(RESTORE);
+            record.putInt(turn).putInt(elapsedMillis());
+            putState(players);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void end(int turn, Player winner) {
+        lock.lock();
+        try {
+            begin(END);
+            record.putInt(turn).putInt(elapsedMillis()).put((byte) (winner != null ? winner.id : -1));
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Nada mais é gravado; o JournalWriter força o resto e fecha o arquivo
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Arquivo criado para uma partida que não começou
+    void discard() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    static byte actionCode(String actionType) {
+        for (int i = 0; i < ACTION_TYPES.length; i++) {
+            if (ACTION_TYPES[i].equals(actionType)) {
+                return (byte) i;
+            }
+        }
+        return OTHER_ACTION;
+    }
+
+    private int elapsedMillis() {
+        return (int) (System.currentTimeMillis() - startMillis);
+    }
+
+    private void putState(PlayerRegistry players) {
+        record.put((byte) players.size());
+        for (Player player : players) {
+            reserve(14 + Long.bitCount(player.effectMask));
+            record.put((byte) player.id).putShort((short) player.hp).putShort((short) player.mp)
+                  .put((byte) (player.isAlive ? 1 : 0)).putLong(player.effectMask);
+            for (long m = player.effectMask; m != 0; m &= m - 1) {
+                record.put((byte) player.effectTurns[Long.numberOfTrailingZeros(m)]);
+            }
+        }
+    }
+
+    private void begin(byte type) {
+        record.clear();
+        record.put(type).putShort((short) 0);
+    }
+
+    private void putString(String text) {
+        if (text.length() > MAX_STRING) {
+            text = text.substring(0, MAX_STRING);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        reserve(2 + bytes.length);
+        record.putShort((short) bytes.length).put(bytes);
+    }
+
+    // Cabeçalho com 6 nomes longos pode passar do tamanho inicial
+    private void reserve(int bytes) {
+        if (record.remaining() < bytes + 64) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes + 64));
+            record.flip();
+            larger.put(record);
+            record = larger;
+        }
+    }
+
+    // Copia o registro para o mapa; ao encher, mapeia o próximo trecho do arquivo
+    private void commit() {
+        if (closed) {
+            return;
+        }
+        record.putShort(1, (short) (record.position() - 3));
+        record.flip();
+        try {
+            if (buffer.remaining() < record.remaining()) {
+                retired.add(buffer);
+                bufferStart += buffer.position();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferStart, Math.max(CHUNK, record.remaining()));
+            }
+            buffer.put(record);
+            dirty = true;
+        } catch (IOException e) {
+            // Sem espaço ou arquivo removido: a partida segue sem diário
+            failure = e;
+            closed = true;
+        }
+    }
+
+    // Só o JournalWriter chama: força para o disco o que foi gravado desde a última vez.
+    // Devolve true quando a partida acabou e o arquivo foi fechado.
+    boolean sync() throws IOException {
+        MappedByteBuffer current;
+        java.util.List<MappedByteBuffer> full;
+        boolean finished;
+        long length;
+        lock.lock();
+        try {
+            if (!dirty && !closed) {
+                return false;
+            }
+            current = buffer;
+            full = new ArrayList<>(retired);
+            retired.clear();
+            dirty = false;
+            finished = closed;
+            length = bufferStart + buffer.position();
+        } finally {
+            lock.unlock();
+        }
+
+        for (MappedByteBuffer chunk : full) {
+            chunk.force();
+        }
+        current.force();
+        if (finished) {
+            try {
+                channel.truncate(length);
+            } catch (IOException e) {
+                // Windows não corta arquivo mapeado; a leitura para no primeiro tipo 0
+            }
+            channel.close();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return finished;
+    }
+}
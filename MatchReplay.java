@@ -0,0 +1,326 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+// Reexecuta partidas do diário (MatchJournal) com as regras do servidor e a semente
+// gravada, sem rede nem esperas, e confere cada turno: texto do TURN_RESULT, HP/MP,
+// efeitos e vencedor. Serve para verificar as regras e reproduzir um bug turno a turno.
+// Exemplos: java MatchReplay journal                  (todas, em paralelo)
+//           java MatchReplay journal/Principal-....rpgj --verbose
+//           java MatchReplay journal --repeat=50      (mede turnos/s)
+public class MatchReplay {
+    static final class Result {
+        final Path path;
+        String room = "?";
+        long seed;
+        int turns = 0;
+        boolean finished = false;
+        String winner;
+        // Primeira diferença encontrada; null = partida reproduzida
+        String divergence;
+
+        Result(Path path) {
+            this.path = path;
+        }
+    }
+
+    static Result replay(Path path, PrintStream verbose) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Result result = new Result(path);
+        PlayerRegistry players = new PlayerRegistry(GameRoom.MAX_PLAYERS);
+        // Indexados pelos ids gravados (os da sala, que podem ter buracos)
+        Player[] byId = new Player[GameRoom.MAX_PLAYERS];
+        PlayerAction[] pending = new PlayerAction[GameRoom.MAX_PLAYERS];
+        boolean started = false;
+
+        while (in.remaining() >= 3 && result.divergence == null) {
+            byte type = in.get();
+            if (type == 0) {
+                break;
+            }
+            int length = in.getShort() & 0xFFFF;
+            if (length > in.remaining()) {
+                // Registro cortado por uma queda no meio da gravação
+                break;
+            }
+            ByteBuffer body = in.slice();
+            body.limit(length);
+            in.position(in.position() + length);
+
+            if (!started && type != MatchJournal.HEADER) {
+                result.divergence = "arquivo sem cabeçalho";
+                break;
+            }
+            switch (type) {
+                case MatchJournal.HEADER: {
+                    if (started || body.getInt() != MatchJournal.MAGIC) {
+                        result.divergence = "cabeçalho inválido";
+                        break;
+                    }
+                    byte version = body.get();
+                    if (version != MatchJournal.VERSION) {
+                        result.divergence = "versão " + version + " do diário não suportada";
+                        break;
+                    }
+                    body.getLong();
+                    result.seed = body.getLong();
+                    result.room = getString(body);
+                    int count = body.get();
+                    for (int i = 0; i < count && result.divergence == null; i++) {
+                        int id = body.get();
+                        String name = getString(body);
+                        String playerClass = getString(body);
+                        SkillCatalog.ClassInfo classInfo = SkillCatalog.get().getClassInfo(playerClass);
+                        if (classInfo == null) {
+                            result.divergence = "classe " + playerClass + " não existe no catálogo atual";
+                            break;
+                        }
+                        Player player = new Player(name, classInfo);
+                        players.add(player);
+                        byId[id] = player;
+                    }
+                    started = true;
+                    break;
+                }
+                case MatchJournal.ACTION: {
+                    int turn = body.getInt();
+                    body.getInt();
+                    int actorId = body.get();
+                    Player actor = byId[actorId];
+                    int priority = body.getShort();
+                    byte code = body.get();
+                    String actionType = code == MatchJournal.OTHER_ACTION ? getString(body) : MatchJournal.ACTION_TYPES[code];
+                    String target = getString(body);
+                    int skillId = body.getShort();
+                    String item = getString(body);
+                    PlayerAction action = new PlayerAction(actor.name, actionType, target, item, priority);
+                    if (skillId >= 0) {
+                        action.skillInfo = SkillCatalog.get().getSkill(skillId);
+                        if (action.skillInfo == null) {
+                            result.divergence = "turno " + turn + ": habilidade " + skillId + " não existe no catálogo atual";
+                            break;
+                        }
+                    }
+                    pending[actorId] = action;
+                    break;
+                }
+                case MatchJournal.LEAVE: {
+                    body.getInt();
+                    body.getInt();
+                    byId[body.get()].setAlive(false);
+                    break;
+                }
+                case MatchJournal.TURN:
+                    replayTurn(body, players, byId, pending, result, verbose);
+                    break;
+                case MatchJournal.RESTORE: {
+                    // Partida restaurada de uma foto: o estado vem pronto
+                    body.getInt();
+                    body.getInt();
+                    readState(body, byId, true);
+                    Arrays.fill(pending, null);
+                    if (verbose != null) {
+                        verbose.println("Restaurada de uma foto");
+                    }
+                    break;
+                }
+                case MatchJournal.END: {
+                    int turn = body.getInt();
+                    body.getInt();
+                    int winnerId = body.get();
+                    Player expected = winnerId >= 0 ? byId[winnerId] : null;
+                    Player actual = players.firstAlive();
+                    result.finished = true;
+                    result.winner = expected != null ? expected.name : "Empate";
+                    if (actual != expected) {
+                        result.divergence = "turno " + turn + ": vencedor " + (actual != null ? actual.name : "Empate") +
+                                ", diário diz " + result.winner;
+                    }
+                    if (verbose != null) {
+                        verbose.println("GAME_END|" + result.winner);
+                    }
+                    break;
+                }
+                default:
+                    // Tipo de uma versão mais nova: o tamanho permite pular
+                    break;
+            }
+        }
+        return result;
+    }
+
+    // Mesma sequência do GameRoom.processTurnActions, na ordem de execução gravada
+    private static void replayTurn(ByteBuffer body, PlayerRegistry players, Player[] byId,
+                                   PlayerAction[] pending, Result result, PrintStream verbose) {
+        int turn = body.getInt();
+        body.getInt();
+        int expectedHash = body.getInt();
+        int count = body.get();
+        java.util.List<PlayerAction> order = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = body.get();
+            PlayerAction action = id >= 0 ? pending[id] : null;
+            if (action == null) {
+                result.divergence = "turno " + turn + ": ação do jogador " + id + " ausente no diário";
+                return;
+            }
+            order.add(action);
+        }
+
+        CombatRules rules = new CombatRules(players, CombatRules.turnRandom(result.seed, turn));
+        StringBuilder turnResult = new StringBuilder("TURN_RESULT");
+        rules.processStatusEffects();
+        for (PlayerAction action : order) {
+            Player actor = players.get(action.playerName);
+            if (actor != null && actor.isAlive) {
+                turnResult.append("|").append(rules.executePlayerAction(action));
+            }
+        }
+        rules.endTurn();
+        Arrays.fill(pending, null);
+        result.turns++;
+
+        String text = turnResult.toString();
+        if (verbose != null) {
+            verbose.println("Turno " + turn + ": " + text);
+        }
+        if (text.hashCode() != expectedHash) {
+            result.divergence = "turno " + turn + ": TURN_RESULT diferente do gravado: " + text;
+            return;
+        }
+
+        String difference = readState(body, byId, false);
+        if (difference != null) {
+            result.divergence = "turno " + turn + ": " + difference;
+        }
+    }
+
+    // Estado gravado de cada jogador: confere (devolve a primeira diferença) ou aplica
+    private static String readState(ByteBuffer body, Player[] byId, boolean apply) {
+        int playerCount = body.get();
+        for (int i = 0; i < playerCount; i++) {
+            Player player = byId[body.get()];
+            int hp = body.getShort();
+            int mp = body.getShort();
+            boolean alive = body.get() != 0;
+            long effectMask = body.getLong();
+            if (apply) {
+                player.setHp(hp);
+                player.setMp(mp);
+                player.setAlive(alive);
+                player.clearStatusEffects();
+                for (long m = effectMask; m != 0; m &= m - 1) {
+                    player.addStatusEffect(StatusEffect.VALUES[Long.numberOfTrailingZeros(m)], body.get());
+                }
+                continue;
+            }
+            boolean same = player.hp == hp && player.mp == mp && player.isAlive == alive && player.effectMask == effectMask;
+            for (long m = effectMask; m != 0; m &= m - 1) {
+                same &= player.effectTurns[Long.numberOfTrailingZeros(m)] == body.get();
+            }
+            if (!same) {
+                return "estado de " + player.name + " diferente (hp " + player.hp + "/" + hp + ", mp " + player.mp +
+                        "/" + mp + ", vivo " + player.isAlive + "/" + alive + ")";
+            }
+        }
+        return null;
+    }
+
+    private static String getString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort() & 0xFFFF];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Arquivos .rpgj dos argumentos (diretórios são percorridos)
+    private static java.util.List<Path> collect(java.util.List<String> paths) throws IOException {
+        java.util.List<Path> files = new ArrayList<>();
+        for (String name : paths) {
+            Path path = Paths.get(name);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> listing = Files.list(path)) {
+                    listing.filter(p -> p.getFileName().toString().endsWith(JournalWriter.EXTENSION))
+                           .sorted()
+                           .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    public static void main(String[] args) throws IOException {
+        java.util.List<String> paths = new ArrayList<>();
+        boolean verbose = false;
+        int repeat = 1;
+        for (String arg : args) {
+            if (arg.equals("--verbose")) {
+                verbose = true;
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Math.max(1, Integer.parseInt(arg.substring("--repeat=".length())));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add("journal");
+        }
+
+        java.util.List<Path> files = collect(paths);
+        if (files.isEmpty()) {
+            System.out.println("[REPLAY] Nenhum diário encontrado em " + paths);
+            return;
+        }
+        // Falha cedo se o catálogo estiver ausente
+        SkillCatalog.get();
+
+        PrintStream out = verbose ? System.out : null;
+        java.util.List<Result> results = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            // Com --verbose uma partida de cada vez, para o texto não misturar
+            Stream<Path> stream = verbose ? files.stream() : files.parallelStream();
+            results = stream.map(path -> {
+                try {
+                    if (out != null) {
+                        out.println("=== " + path + " ===");
+                    }
+                    return replay(path, out);
+                } catch (IOException e) {
+                    Result failed = new Result(path);
+                    failed.divergence = "erro de leitura: " + e.getMessage();
+                    return failed;
+                }
+            }).collect(Collectors.toList());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long turns = 0;
+        int divergent = 0;
+        int unfinished = 0;
+        for (Result result : results) {
+            turns += result.turns;
+            if (!result.finished) unfinished++;
+            if (result.divergence != null) {
+                divergent++;
+                System.out.println("[REPLAY] DIVERGÊNCIA " + result.path + " (sala " + result.room +
+                        ", semente " + result.seed + "): " + result.divergence);
+            }
+        }
+        System.out.printf("[REPLAY] %d partidas (%d sem fim gravado), %d turnos, %d divergências; " +
+                        "%d execuções em %.3f s (%.0f turnos/s)%n",
+                results.size(), unfinished, turns, divergent, repeat, seconds, turns * repeat / Math.max(seconds, 1e-9));
+        System.exit(divergent > 0 ? 1 : 0);
+    }
+}
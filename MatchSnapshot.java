@@ -0,0 +1,93 @@
+import java.io.*;
+import java.util.*;
+
+// Foto de uma partida num fim de turno: o suficiente para continuar do próximo turno
+// (jogadores com HP/MP/efeitos e ficha do RESUME, semente das regras e número do
+// turno). As ações em andamento não entram: restaurada, a sala começa o turno de novo.
+public class MatchSnapshot {
+    static final int MAGIC = 0x52534E31; // "RSN1"
+    // 2: ficha do RESUME de cada jogador
+    // 3: máscara de efeitos com 64 bits
+    static final byte VERSION = 3;
+
+    String room;
+    int turnTimeoutSeconds;
+    long matchSeed;
+    int matchesStarted;
+    // Próximo turno a jogar
+    int turn;
+    long takenAtMillis;
+    final java.util.List<Player> players = new ArrayList<>();
+
+    // Chamado pela sala sob o playersLock; só copia ~200 bytes, sem tocar no disco
+    static byte[] encode(String room, int turnTimeoutSeconds, long matchSeed, int matchesStarted, int turn,
+                         PlayerRegistry players) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(room);
+            out.writeInt(turnTimeoutSeconds);
+            out.writeLong(matchSeed);
+            out.writeInt(matchesStarted);
+            out.writeInt(turn);
+            out.writeLong(System.currentTimeMillis());
+            out.writeByte(players.size());
+            for (Player player : players) {
+                out.writeUTF(player.name);
+                out.writeUTF(player.playerClass);
+                out.writeUTF(player.resumeToken != null ? player.resumeToken : "");
+                out.writeShort(player.hp);
+                out.writeShort(player.mp);
+                out.writeBoolean(player.isAlive);
+                out.writeLong(player.effectMask);
+                for (long m = player.effectMask; m != 0; m &= m - 1) {
+                    out.writeByte(player.effectTurns[Long.numberOfTrailingZeros(m)]);
+                }
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream não lança
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static MatchSnapshot decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("formato desconhecido");
+        }
+        MatchSnapshot snapshot = new MatchSnapshot();
+        snapshot.room = in.readUTF();
+        snapshot.turnTimeoutSeconds = in.readInt();
+        snapshot.matchSeed = in.readLong();
+        snapshot.matchesStarted = in.readInt();
+        snapshot.turn = in.readInt();
+        snapshot.takenAtMillis = in.readLong();
+        int count = in.readByte();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            String playerClass = in.readUTF();
+            SkillCatalog.ClassInfo classInfo = SkillCatalog.get().getClassInfo(playerClass);
+            if (classInfo == null) {
+                throw new IOException("classe desconhecida: " + playerClass);
+            }
+            Player player = new Player(name, classInfo);
+            String token = in.readUTF();
+            player.resumeToken = token.isEmpty() ? null : token;
+            player.setHp(in.readShort());
+            player.setMp(in.readShort());
+            player.setAlive(in.readBoolean());
+            long effectMask = in.readLong();
+            for (long m = effectMask; m != 0; m &= m - 1) {
+                int effect = Long.numberOfTrailingZeros(m);
+                if (effect >= StatusEffect.VALUES.length) {
+                    throw new IOException("efeito desconhecido: " + effect);
+                }
+                player.addStatusEffect(StatusEffect.VALUES[effect], in.readByte());
+            }
+            snapshot.players.add(player);
+        }
+        return snapshot;
+    }
+}
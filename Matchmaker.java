@@ -0,0 +1,186 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fila de partidas: QUEUE|nome|classe entra numa fila por classe (ConcurrentLinkedQueue,
+// sem trava para quem entra) e uma única tarefa no agendador compartilhado forma os
+// grupos a cada 100 ms. Grupo de --match-size inicia na hora numa sala nova; quando o
+// mais antigo espera --queue-wait segundos, sai a melhor partida com quem estiver na
+// fila (pelo menos MIN_PLAYERS). Com --match-distinct-classes cada classe entra uma vez
+// por partida enquanto a espera não esgota.
+public class Matchmaker {
+    static final String ROOM_PREFIX = "Fila-";
+    private static final long MATCH_INTERVAL_MILLIS = 100;
+    private static final int WAITING = 0;
+    private static final int MATCHED = 1;
+    private static final int CANCELLED = 2;
+
+    static final class Ticket {
+        final ClientHandler handler;
+        final String name;
+        final SkillCatalog.ClassInfo classInfo;
+        final long enqueuedAt = System.nanoTime();
+        // WAITING -> MATCHED (formador) ou CANCELLED (saída/desconexão): só uma vence
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Ticket(ClientHandler handler, String name, SkillCatalog.ClassInfo classInfo) {
+            this.handler = handler;
+            this.name = name;
+            this.classInfo = classInfo;
+        }
+    }
+
+    private final GameServer server;
+    // Uma fila por classe do catálogo; o mapa não muda depois de criado
+    private final java.util.List<ConcurrentLinkedQueue<Ticket>> queues = new ArrayList<>();
+    // Nomes na fila: não se repetem, então um grupo nunca tem nomes iguais
+    private final Map<String, Ticket> byName = new ConcurrentHashMap<>();
+    // Só a tarefa de formação usa
+    private int nextRoom = 1;
+
+    Matchmaker(GameServer server) {
+        this.server = server;
+        for (int i = 0; i < SkillCatalog.get().getClasses().length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+        server.getScheduler().schedule(this::formMatches, MATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    int getQueuedCount() {
+        return byName.size();
+    }
+
+    // null se o nome já está na fila; a classe já foi validada
+    Ticket enqueue(ClientHandler handler, String name, SkillCatalog.ClassInfo classInfo) {
+        Ticket ticket = new Ticket(handler, name, classInfo);
+        if (byName.putIfAbsent(name, ticket) != null) {
+            return null;
+        }
+        queues.get(classInfo.id).add(ticket);
+        return ticket;
+    }
+
+    // false se o jogador já foi colocado numa partida
+    boolean cancel(Ticket ticket) {
+        if (!ticket.state.compareAndSet(WAITING, CANCELLED)) {
+            return false;
+        }
+        // O nó sai da fila quando a formação passar por ele
+        byName.remove(ticket.name, ticket);
+        return true;
+    }
+
+    private void formMatches() {
+        try {
+            long now = System.nanoTime();
+            while (formMatch(now)) {
+                // um grupo por volta até não sobrar grupo pronto
+            }
+        } catch (RuntimeException e) {
+            server.logError("Erro ao formar partidas: " + e);
+        } finally {
+            server.getScheduler().schedule(this::formMatches, MATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Forma no máximo um grupo; false quando não há nada pronto agora
+    private boolean formMatch(long now) {
+        int size = server.config.matchSize;
+        // Até size dos mais antigos de cada classe: os size mais antigos no total estão aqui
+        java.util.List<Ticket> candidates = new ArrayList<>();
+        java.util.List<Ticket> heads = new ArrayList<>();
+        for (ConcurrentLinkedQueue<Ticket> queue : queues) {
+            int taken = 0;
+            for (Iterator<Ticket> it = queue.iterator(); it.hasNext() && taken < size; ) {
+                Ticket ticket = it.next();
+                if (ticket.state.get() != WAITING) {
+                    it.remove();
+                    continue;
+                }
+                if (taken == 0) {
+                    heads.add(ticket);
+                }
+                candidates.add(ticket);
+                taken++;
+            }
+        }
+        if (candidates.size() < GameRoom.MIN_PLAYERS) {
+            return false;
+        }
+        Comparator<Ticket> byAge = Comparator.comparingLong(ticket -> ticket.enqueuedAt);
+        candidates.sort(byAge);
+        boolean expired = now - candidates.get(0).enqueuedAt >= TimeUnit.SECONDS.toNanos(server.config.queueWaitSeconds);
+
+        java.util.List<Ticket> group = new ArrayList<>(size);
+        if (server.config.matchDistinctClasses) {
+            heads.sort(byAge);
+            group.addAll(heads.subList(0, Math.min(size, heads.size())));
+        }
+        if (group.size() < size && (expired || !server.config.matchDistinctClasses)) {
+            for (Ticket ticket : candidates) {
+                if (group.size() >= size) break;
+                if (!group.contains(ticket)) {
+                    group.add(ticket);
+                }
+            }
+        }
+        if (group.size() < size && !(expired && group.size() >= GameRoom.MIN_PLAYERS)) {
+            return false;
+        }
+
+        // Reserva; quem cancelou no meio do caminho fica de fora
+        java.util.List<Ticket> claimed = new ArrayList<>(group.size());
+        for (Ticket ticket : group) {
+            if (ticket.state.compareAndSet(WAITING, MATCHED)) {
+                claimed.add(ticket);
+            }
+        }
+        if (claimed.size() < group.size()) {
+            // Devolve e tenta de novo com a fila atualizada
+            for (Ticket ticket : claimed) {
+                ticket.state.set(WAITING);
+            }
+            return true;
+        }
+        for (Ticket ticket : claimed) {
+            queues.get(ticket.classInfo.id).remove(ticket);
+            byName.remove(ticket.name, ticket);
+        }
+
+        startMatch(claimed, now);
+        return true;
+    }
+
+    private void startMatch(java.util.List<Ticket> group, long now) {
+        GameRoom room;
+        do {
+            room = server.createRoom(ROOM_PREFIX + nextRoom++, server.config.turnTimeoutSeconds);
+        } while (room == null);
+        room.fromQueue = true;
+
+        long longestWait = 0;
+        for (Ticket ticket : group) {
+            long waited = now - ticket.enqueuedAt;
+            longestWait = Math.max(longestWait, waited);
+            server.metrics.queueWait.record(waited / 1000);
+            // Sala nova e nomes únicos na fila: não há motivo para recusa
+            String rejection = room.join(ticket.handler, ticket.name, ticket.classInfo);
+            if (rejection != null) {
+                server.logWarn("Fila: " + ticket.name + " recusado na sala " + room.name + ": " + rejection);
+                ticket.handler.sendMessage("QUEUE_REJECTED|" + rejection);
+                continue;
+            }
+            ticket.handler.enterMatchedRoom(room, ticket.name);
+        }
+        server.metrics.matchesMade.increment();
+        server.logMessage("Fila: partida formada na sala " + room.name + " com " + group.size() +
+                " jogadores (maior espera " + TimeUnit.NANOSECONDS.toMillis(longestWait) + " ms)");
+
+        room.updateLobby();
+        if (!room.startGame()) {
+            // Todos caíram enquanto a sala era formada
+            server.removeRoomIfEmpty(room);
+        }
+        server.fireStateChanged();
+    }
+}
@@ -0,0 +1,341 @@
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Transporte não bloqueante: um seletor para aceitar e poucas threads de I/O
+public class NioTransport {
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final GameServer server;
+    private final int port;
+    private final IoWorker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private Selector acceptSelector;
+    private volatile boolean running = false;
+
+    NioTransport(GameServer server, int port, int ioThreads) {
+        this.server = server;
+        this.port = port;
+        this.workers = new IoWorker[ioThreads];
+    }
+
+    void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port));
+        acceptSelector = Selector.open();
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        running = true;
+
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new IoWorker(i);
+            Thread workerThread = new Thread(workers[i], "nio-io-" + i);
+            workerThread.setDaemon(true);
+            workerThread.start();
+        }
+
+        Thread acceptThread = new Thread(this::acceptLoop, "nio-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    void stop() {
+        running = false;
+        try {
+            acceptSelector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+        }
+        for (IoWorker worker : workers) {
+            if (worker != null) worker.selector.wakeup();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                acceptSelector.select();
+                Iterator<SelectionKey> it = acceptSelector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid() || !key.isAcceptable()) continue;
+
+                    SocketChannel channel;
+                    while ((channel = serverChannel.accept()) != null) {
+                        channel.configureBlocking(false);
+                        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                        channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+                        IoWorker worker = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+                        worker.register(channel);
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    server.logWarn("Erro ao aceitar conexão: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private class IoWorker implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        IoWorker(int index) throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void register(SocketChannel channel) {
+            pendingChannels.add(channel);
+            selector.wakeup();
+        }
+
+        void requestWrite(Connection connection) {
+            pendingWrites.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    registerPending();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Connection connection = (Connection) key.attachment();
+                        if (!key.isValid()) {
+                            connection.close();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            connection.handleRead(readBuffer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    }
+                } catch (ClosedSelectorException e) {
+                    return;
+                } catch (IOException e) {
+                    server.logError("Erro no seletor de I/O: " + e.getMessage());
+                }
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pendingChannels.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    Connection connection = new Connection(this, channel, key);
+                    key.attach(connection);
+                    connection.handler = server.createClientHandler(connection);
+                } catch (IOException e) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+
+            Connection connection;
+            while ((connection = pendingWrites.poll()) != null) {
+                if (connection.key.isValid()) {
+                    connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                }
+            }
+        }
+    }
+
+    // Uma conexão de cliente com decodificação de linhas direto do ByteBuffer
+    class Connection {
+        private final IoWorker worker;
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        // Mensagem em escrita parcial; as próximas ficam na fila do ClientHandler
+        private ByteBuffer pending;
+        private byte[] inbound = new byte[256];
+        private int inboundLength = 0;
+        private volatile boolean binary = false;
+        private volatile boolean closed = false;
+        // Fechamento já agendado por uma escrita que falhou
+        private volatile boolean closing = false;
+        ClientHandler handler;
+
+        Connection(IoWorker worker, SocketChannel channel, SelectionKey key) {
+            this.worker = worker;
+            this.channel = channel;
+            this.key = key;
+        }
+
+        boolean isOpen() {
+            return !closed;
+        }
+
+        String getRemoteAddress() {
+            try {
+                return String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                return "desconhecido";
+            }
+        }
+
+        // Chamado pelo ClientHandler após responder o HELLO
+        void setBinary(boolean binary) {
+            this.binary = binary;
+        }
+
+        // Escreve o que couber no buffer do socket; o resto espera OP_WRITE
+        void flush() {
+            if (closed) {
+                return;
+            }
+            if (!writeOutbound() && !closing) {
+                closing = true;
+                // Quem chama pode estar transmitindo para a sala (sob o turnLock): o close()
+                // avisa a sala pelo onClosed() e não pode reentrar nela na mesma pilha
+                server.getScheduler().schedule(this::close, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized boolean writeOutbound() {
+            try {
+                while (true) {
+                    if (pending == null) {
+                        OutboundMessage message = handler.getOutbound().poll();
+                        if (message == null) break;
+                        // Visão própria sobre o array compartilhado do broadcast, sem cópia
+                        pending = ByteBuffer.wrap(handler.encode(message));
+                    }
+                    channel.write(pending);
+                    if (pending.hasRemaining()) {
+                        worker.requestWrite(this);
+                        return true;
+                    }
+                    pending = null;
+                }
+                if (key.isValid() && (key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                }
+                return true;
+            } catch (IOException | CancelledKeyException e) {
+                return false;
+            }
+        }
+
+        private void handleRead(ByteBuffer readBuffer) {
+            int read;
+            try {
+                readBuffer.clear();
+                read = channel.read(readBuffer);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            int needed = inboundLength + readBuffer.remaining();
+            if (needed > inbound.length) {
+                inbound = Arrays.copyOf(inbound, Math.max(needed, inbound.length * 2));
+            }
+            readBuffer.get(inbound, inboundLength, readBuffer.remaining());
+            inboundLength = needed;
+
+            // O modo pode mudar no meio do buffer (HELLO seguido de quadros binários)
+            int position = 0;
+            try {
+                while (!closed) {
+                    int consumed = binary ? decodeFrame(position) : decodeLine(position);
+                    if (consumed == 0) break;
+                    position += consumed;
+                }
+            } catch (IOException e) {
+                server.logWarn("Mensagem inválida de " + getRemoteAddress() + ": " + e.getMessage());
+                close();
+                return;
+            } catch (RuntimeException e) {
+                // Erro na lógica do jogo derruba só esta conexão, não o seletor e as outras
+                server.logError("Erro ao tratar mensagem de " + getRemoteAddress() + ": " + e);
+                close();
+                return;
+            }
+
+            System.arraycopy(inbound, position, inbound, 0, inboundLength - position);
+            inboundLength -= position;
+            if (inboundLength > MAX_LINE_LENGTH) {
+                server.logWarn("Mensagem muito longa de " + getRemoteAddress() + ", conexão encerrada");
+                close();
+            }
+        }
+
+        // Retorna quantos bytes foram consumidos (0 se a linha ainda não chegou inteira)
+        private int decodeLine(int start) {
+            for (int i = start; i < inboundLength; i++) {
+                if (inbound[i] == '\n') {
+                    int end = i;
+                    if (end > start && inbound[end - 1] == '\r') {
+                        end--;
+                    }
+                    handler.onMessage(new String(inbound, start, end - start, StandardCharsets.UTF_8));
+                    return i + 1 - start;
+                }
+            }
+            return 0;
+        }
+
+        private int decodeFrame(int start) throws IOException {
+            int length = 0;
+            int position = start;
+            for (int shift = 0; ; shift += 7) {
+                if (position >= inboundLength) return 0;
+                int b = inbound[position++] & 0xFF;
+                length |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+                if (shift > 21) throw new IOException("Tamanho de quadro inválido");
+            }
+            if (length > BinaryCodec.MAX_FRAME_SIZE) {
+                throw new IOException("Quadro muito grande: " + length);
+            }
+            if (inboundLength - position < length) return 0;
+
+            handler.onFrame(BinaryCodec.decode(inbound, position, length));
+            return position + length - start;
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+            }
+            if (handler != null) {
+                handler.onClosed();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import java.nio.charset.StandardCharsets;
+
+// Mensagem pronta para envio: cada codificação (texto ou binária) é gerada uma vez
+// e o mesmo array é compartilhado por todos os destinatários do broadcast
+public final class OutboundMessage {
+    final String text;
+    private volatile byte[] textBytes;
+    private volatile byte[] binaryBytes;
+
+    OutboundMessage(String text) {
+        this.text = text;
+    }
+
+    // Não alterar o array devolvido: é o mesmo para todos os clientes
+    byte[] bytes(boolean binary) {
+        if (binary) {
+            byte[] bytes = binaryBytes;
+            if (bytes == null) {
+                // Corrida inofensiva: no pior caso duas threads codificam a mesma mensagem
+                bytes = BinaryCodec.encode(text);
+                binaryBytes = bytes;
+            }
+            return bytes;
+        }
+        byte[] bytes = textBytes;
+        if (bytes == null) {
+            bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+            textBytes = bytes;
+        }
+        return bytes;
+    }
+
+    boolean startsWith(String prefix) {
+        return text.startsWith(prefix);
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Fila de saída limitada de um cliente. Quem transmite só enfileira; o escritor do
+// cliente (thread própria ou seletor NIO) esvazia no ritmo do socket.
+// Cheia: DROP desconecta o cliente, COALESCE troca as atualizações de estado
+// pendentes pela mais recente (um keyframe no caso dos jogadores) e SKIP (espectadores)
+// faz o mesmo e ainda pula os quadros mais antigos em vez de desconectar.
+public class OutboundQueue {
+    private final ArrayDeque<OutboundMessage> messages = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // Mudam quando a conexão passa a assistir uma sala (SPECTATE) e quando volta
+    private volatile int limit;
+    private volatile ServerConfig.SlowClientPolicy policy;
+    private final Supplier<OutboundMessage> keyframe;
+    private final Runnable onOverflow;
+    private final Runnable onSkip;
+    private boolean closed = false;
+    private volatile int peakDepth = 0;
+    private volatile int coalesceCount = 0;
+
+    OutboundQueue(int limit, ServerConfig.SlowClientPolicy policy, Supplier<OutboundMessage> keyframe,
+                  Runnable onOverflow, Runnable onSkip) {
+        this.limit = limit;
+        this.policy = policy;
+        this.keyframe = keyframe;
+        this.onOverflow = onOverflow;
+        this.onSkip = onSkip;
+    }
+
+    void setPolicy(int limit, ServerConfig.SlowClientPolicy policy) {
+        lock.lock();
+        try {
+            this.limit = limit;
+            this.policy = policy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // false se a fila está fechada ou o cliente acabou de ser descartado
+    boolean offer(OutboundMessage message) {
+        ServerConfig.SlowClientPolicy current = policy;
+        OutboundMessage latestKeyframe = null;
+        if (current != ServerConfig.SlowClientPolicy.DROP && size() >= limit) {
+            // Montado fora da trava da fila: o keyframe trava os jogadores da sala
+            latestKeyframe = keyframe.get();
+        }
+
+        boolean overflow = false;
+        int skipped = 0;
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (messages.size() >= limit) {
+                if (policy != ServerConfig.SlowClientPolicy.DROP) {
+                    coalesce(message, latestKeyframe);
+                    if (policy == ServerConfig.SlowClientPolicy.SKIP) {
+                        skipped = skipOldest();
+                    }
+                    if (messages.size() <= limit) {
+                        coalesceCount++;
+                        notEmpty.signal();
+                        return true;
+                    }
+                }
+                closed = true;
+                messages.clear();
+                notEmpty.signalAll();
+                overflow = true;
+            } else {
+                messages.add(message);
+                peakDepth = Math.max(peakDepth, messages.size());
+                notEmpty.signal();
+                return true;
+            }
+        } finally {
+            lock.unlock();
+            for (int i = 0; i < skipped; i++) {
+                onSkip.run();
+            }
+        }
+
+        if (overflow) {
+            onOverflow.run();
+        }
+        return false;
+    }
+
+    // SKIP: ainda cheia depois de juntar o estado, descarta os quadros mais antigos
+    // (texto do turno, START_TURN...); o estado pendente fica. Devolve quantos saíram.
+    private int skipOldest() {
+        int skipped = 0;
+        Iterator<OutboundMessage> it = messages.iterator();
+        while (messages.size() > limit && it.hasNext()) {
+            OutboundMessage queued = it.next();
+            if (!isState(queued)) {
+                it.remove();
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static boolean isState(OutboundMessage message) {
+        return message.startsWith("LOBBY_UPDATE") || message.startsWith("COUNTDOWN") || isPlayersState(message);
+    }
+
+    // Remove as atualizações de estado da fila e reenfileira só a versão mais recente
+    private void coalesce(OutboundMessage incoming, OutboundMessage latestKeyframe) {
+        OutboundMessage lobby = null;
+        OutboundMessage countdown = null;
+        boolean playersChanged = false;
+
+        Iterator<OutboundMessage> it = messages.iterator();
+        while (it.hasNext()) {
+            OutboundMessage queued = it.next();
+            if (queued.startsWith("LOBBY_UPDATE")) {
+                lobby = queued;
+                it.remove();
+            } else if (queued.startsWith("COUNTDOWN")) {
+                countdown = queued;
+                it.remove();
+            } else if (isPlayersState(queued) && latestKeyframe != null) {
+                playersChanged = true;
+                it.remove();
+            }
+        }
+
+        OutboundMessage other = null;
+        if (incoming.startsWith("LOBBY_UPDATE")) {
+            lobby = incoming;
+        } else if (incoming.startsWith("COUNTDOWN")) {
+            countdown = incoming;
+        } else if (isPlayersState(incoming) && latestKeyframe != null) {
+            playersChanged = true;
+        } else {
+            other = incoming;
+        }
+
+        if (lobby != null) messages.add(lobby);
+        if (countdown != null) messages.add(countdown);
+        // O keyframe já inclui o estado do delta que chegou (os deltas levam valores absolutos)
+        if (playersChanged) messages.add(latestKeyframe);
+        if (other != null) messages.add(other);
+    }
+
+    private static boolean isPlayersState(OutboundMessage message) {
+        return message.startsWith("PLAYERS_DELTA") || message.startsWith("PLAYERS_UPDATE");
+    }
+
+    // Escritor bloqueante; null quando a fila é fechada
+    OutboundMessage take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (messages.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            return closed ? null : messages.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Escritor não bloqueante (NIO)
+    OutboundMessage poll() {
+        lock.lock();
+        try {
+            return closed ? null : messages.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            messages.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return messages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getPeakDepth() {
+        return peakDepth;
+    }
+
+    int getCoalesceCount() {
+        return coalesceCount;
+    }
+}
@@ -0,0 +1,150 @@
+// Estado de um jogador no servidor
+public class Player {
+    // Campos alterados desde o último PLAYERS_UPDATE/PLAYERS_DELTA
+    static final int DIRTY_HP = 1;
+    static final int DIRTY_MP = 2;
+    static final int DIRTY_ALIVE = 4;
+    static final int DIRTY_EFFECTS = 8;
+
+    int id;
+    String name;
+    // Classe do catálogo; o nome (playerClass) só para exibir e para o protocolo
+    final SkillCatalog.ClassInfo classInfo;
+    final String playerClass;
+    final int agility;
+    int hp;
+    int maxHP;
+    int mp;
+    int maxMP;
+    boolean isAlive;
+    boolean isDefending;
+    // Efeitos ativos: bit na máscara e turnos restantes no índice do enum
+    long effectMask;
+    final int[] effectTurns = new int[StatusEffect.VALUES.length];
+    int dirtyFields;
+    // Sala que mantém a contagem de vivos (null fora de uma sala)
+    PlayerRegistry registry;
+    // Ficha do RESUME entregue no JOIN_SUCCESS (só no servidor)
+    String resumeToken;
+
+    Player(String name, SkillCatalog.ClassInfo classInfo) {
+        this.name = name;
+        this.classInfo = classInfo;
+        this.playerClass = classInfo.name;
+        this.agility = classInfo.agility;
+        this.hp = 100;
+        this.maxHP = 100;
+        this.mp = 20;
+        this.maxMP = 20;
+        this.isAlive = true;
+        this.isDefending = false;
+    }
+
+    int getAgility() {
+        return agility;
+    }
+
+    void setHp(int hp) {
+        if (this.hp != hp) {
+            this.hp = hp;
+            dirtyFields |= DIRTY_HP;
+        }
+    }
+
+    void setMp(int mp) {
+        if (this.mp != mp) {
+            this.mp = mp;
+            dirtyFields |= DIRTY_MP;
+        }
+    }
+
+    void setAlive(boolean isAlive) {
+        if (this.isAlive != isAlive) {
+            this.isAlive = isAlive;
+            dirtyFields |= DIRTY_ALIVE;
+            if (registry != null) {
+                registry.onAliveChanged(isAlive);
+            }
+        }
+    }
+
+    void addStatusEffect(StatusEffect effect, int duration) {
+        effectMask |= effect.bit;
+        effectTurns[effect.ordinal()] = duration;
+        dirtyFields |= DIRTY_EFFECTS;
+    }
+
+    void clearStatusEffects() {
+        if (effectMask != 0) {
+            effectMask = 0;
+            dirtyFields |= DIRTY_EFFECTS;
+        }
+    }
+
+    // Volta ao estado inicial para uma nova partida
+    void reset() {
+        setHp(maxHP);
+        setMp(maxMP);
+        setAlive(true);
+        isDefending = false;
+        clearStatusEffects();
+    }
+
+    boolean hasStatusEffect(StatusEffect effect) {
+        return (effectMask & effect.bit) != 0;
+    }
+
+    // Algum dos efeitos da máscara (ex.: StatusEffect.PARALYZING)
+    boolean hasAnyStatusEffect(long mask) {
+        return (effectMask & mask) != 0;
+    }
+
+    boolean hasStatusEffects() {
+        return effectMask != 0;
+    }
+
+    String getStatusEffectsString() {
+        return StatusEffect.describe(effectMask, effectTurns);
+    }
+
+    // Percorre só os bits ativos, sem alocar
+    void decrementStatusEffects() {
+        if (effectMask == 0) return;
+        dirtyFields |= DIRTY_EFFECTS;
+        for (long m = effectMask; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            if (--effectTurns[index] <= 0) {
+                effectMask &= ~(1L << index);
+            }
+        }
+    }
+
+    // Formato: nome,classe,agilidade,hp,maxHP,mp,maxMP,isAlive,efeitos,id (efeitos: "p3f2")
+    void appendFullState(StringBuilder sb) {
+        sb.append(name)
+          .append(",").append(playerClass)
+          .append(",").append(getAgility())
+          .append(",").append(hp)
+          .append(",").append(maxHP)
+          .append(",").append(mp)
+          .append(",").append(maxMP)
+          .append(",").append(isAlive)
+          .append(",");
+        StatusEffect.appendCodes(sb, effectMask, effectTurns);
+        sb.append(",").append(id);
+    }
+
+    // Formato: id,campo=valor,... só com os campos alterados; false se nada mudou
+    boolean appendDelta(StringBuilder sb) {
+        if (dirtyFields == 0) return false;
+        sb.append(id);
+        if ((dirtyFields & DIRTY_HP) != 0) sb.append(",hp=").append(hp);
+        if ((dirtyFields & DIRTY_MP) != 0) sb.append(",mp=").append(mp);
+        if ((dirtyFields & DIRTY_ALIVE) != 0) sb.append(",alive=").append(isAlive);
+        if ((dirtyFields & DIRTY_EFFECTS) != 0) {
+            sb.append(",fx=");
+            StatusEffect.appendCodes(sb, effectMask, effectTurns);
+        }
+        return true;
+    }
+}
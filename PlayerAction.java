@@ -0,0 +1,18 @@
+// Ação enviada por um jogador no turno atual
+public class PlayerAction {
+    String playerName;
+    String actionType;
+    String target;
+    String skill;
+    int priority;
+    // Habilidade do catálogo (só em ataques)
+    SkillInfo skillInfo;
+
+    PlayerAction(String playerName, String actionType, String target, String skill, int priority) {
+        this.playerName = playerName;
+        this.actionType = actionType;
+        this.target = target;
+        this.skill = skill;
+        this.priority = priority;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.*;
+import java.util.function.Predicate;
+
+// Jogadores de uma sala indexados por nome e por id, com a contagem de vivos
+// mantida a cada setAlive. Não é thread-safe: a sala acessa sob o playersLock.
+public class PlayerRegistry implements Iterable<Player> {
+    private final java.util.List<Player> players = new ArrayList<>();
+    private final Map<String, Player> byName = new HashMap<>();
+    private final Player[] byId;
+    private volatile int aliveCount = 0;
+
+    PlayerRegistry(int capacity) {
+        this.byId = new Player[capacity];
+    }
+
+    // Recebe o menor id livre (ids pequenos e estáveis durante a partida); false se lotado
+    boolean add(Player player) {
+        if (byName.containsKey(player.name)) {
+            return false;
+        }
+        for (int id = 0; id < byId.length; id++) {
+            if (byId[id] == null) {
+                player.id = id;
+                player.registry = this;
+                byId[id] = player;
+                byName.put(player.name, player);
+                players.add(player);
+                if (player.isAlive) aliveCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Player remove(String name) {
+        Player player = byName.remove(name);
+        if (player != null) {
+            unlink(player);
+            players.remove(player);
+        }
+        return player;
+    }
+
+    void removeIf(Predicate<Player> filter) {
+        Iterator<Player> it = players.iterator();
+        while (it.hasNext()) {
+            Player player = it.next();
+            if (filter.test(player)) {
+                it.remove();
+                byName.remove(player.name);
+                unlink(player);
+            }
+        }
+    }
+
+    private void unlink(Player player) {
+        byId[player.id] = null;
+        player.registry = null;
+        if (player.isAlive) aliveCount--;
+    }
+
+    Player get(String name) {
+        return byName.get(name);
+    }
+
+    Player get(int id) {
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    boolean contains(String name) {
+        return byName.containsKey(name);
+    }
+
+    int size() {
+        return players.size();
+    }
+
+    int getAliveCount() {
+        return aliveCount;
+    }
+
+    // Chamado por Player.setAlive
+    void onAliveChanged(boolean isAlive) {
+        aliveCount += isAlive ? 1 : -1;
+    }
+
+    Player firstAlive() {
+        if (aliveCount == 0) return null;
+        for (Player player : players) {
+            if (player.isAlive) return player;
+        }
+        return null;
+    }
+
+    // "|jogador" para cada um (keyframe); clearDirty zera o rastreamento de alterações
+    void appendFullState(StringBuilder sb, boolean clearDirty) {
+        for (Player player : players) {
+            sb.append("|");
+            player.appendFullState(sb);
+            if (clearDirty) player.dirtyFields = 0;
+        }
+    }
+
+    // "|id,campo=valor" só dos jogadores alterados, zerando o rastreamento; false se nada mudou
+    boolean appendDelta(StringBuilder sb) {
+        boolean changed = false;
+        for (Player player : players) {
+            int mark = sb.length();
+            sb.append("|");
+            if (player.appendDelta(sb)) {
+                changed = true;
+                player.dirtyFields = 0;
+            } else {
+                sb.setLength(mark);
+            }
+        }
+        return changed;
+    }
+
+    java.util.List<Player> snapshot() {
+        return new ArrayList<>(players);
+    }
+
+    // Ordem de entrada na sala
+    @Override
+    public Iterator<Player> iterator() {
+        return Collections.unmodifiableList(players).iterator();
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.concurrent.atomic.LongAdder;
+
+// Métricas de uma sala; cada registro também entra no total do servidor.
+// Só contadores e histogramas atômicos: nada aqui disputa as travas da sala.
+public class RoomMetrics implements RoomMetricsMBean {
+    private final GameRoom room;
+    private final ServerMetrics server;
+    // START_TURN até a última ação chegar (ou o prazo esgotar)
+    final LatencyHistogram actionWait = new LatencyHistogram();
+    // Regras do turno: ordenação, efeitos, ações e fim do turno
+    final LatencyHistogram turnResolution = new LatencyHistogram();
+    // Uma mensagem enfileirada para todos os membros
+    final LatencyHistogram broadcast = new LatencyHistogram();
+    // PING -> PONG dos membros: separa a rede da espera pelas ações
+    final LatencyHistogram rtt = new LatencyHistogram();
+    // Um lote de quadros entregue a todos os espectadores
+    final LatencyHistogram spectatorFanOut = new LatencyHistogram();
+    private final LongAdder turnsResolved = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+
+    RoomMetrics(GameRoom room, ServerMetrics server) {
+        this.room = room;
+        this.server = server;
+    }
+
+    void recordActionWait(long nanos) {
+        actionWait.record(nanos / 1000);
+        server.actionWait.record(nanos / 1000);
+    }
+
+    void recordTurnResolution(long nanos) {
+        turnResolution.record(nanos / 1000);
+        server.turnResolution.record(nanos / 1000);
+        turnsResolved.increment();
+        server.turnsResolved.increment();
+    }
+
+    void recordRtt(long micros) {
+        rtt.record(micros);
+        server.rtt.record(micros);
+    }
+
+    void recordBroadcast(long nanos) {
+        broadcast.record(nanos / 1000);
+        server.broadcast.record(nanos / 1000);
+        broadcasts.increment();
+    }
+
+    void recordSpectatorFanOut(long nanos) {
+        spectatorFanOut.record(nanos / 1000);
+        server.spectatorFanOut.record(nanos / 1000);
+    }
+
+    @Override
+    public int getPlayers() {
+        return room.getMemberCount();
+    }
+
+    @Override
+    public int getSpectators() {
+        return room.spectators.size();
+    }
+
+    @Override
+    public long getTurnsResolved() {
+        return turnsResolved.sum();
+    }
+
+    @Override
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    @Override
+    public long getActionWaitP50Micros() {
+        return actionWait.getPercentile(50);
+    }
+
+    @Override
+    public long getActionWaitP99Micros() {
+        return actionWait.getPercentile(99);
+    }
+
+    @Override
+    public long getTurnResolutionP50Micros() {
+        return turnResolution.getPercentile(50);
+    }
+
+    @Override
+    public long getTurnResolutionP99Micros() {
+        return turnResolution.getPercentile(99);
+    }
+
+    @Override
+    public long getBroadcastP50Micros() {
+        return broadcast.getPercentile(50);
+    }
+
+    @Override
+    public long getBroadcastP99Micros() {
+        return broadcast.getPercentile(99);
+    }
+
+    @Override
+    public long getSpectatorFanOutP99Micros() {
+        return spectatorFanOut.getPercentile(99);
+    }
+
+    @Override
+    public long getRttP50Micros() {
+        return rtt.getPercentile(50);
+    }
+
+    @Override
+    public long getRttP99Micros() {
+        return rtt.getPercentile(99);
+    }
+}
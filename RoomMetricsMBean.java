@@ -0,0 +1,16 @@
+// Atributos de uma sala no JMX (RpgDeTurno/Room/<sala>). Latências em microssegundos.
+public interface RoomMetricsMBean {
+    int getPlayers();
+    int getSpectators();
+    long getTurnsResolved();
+    long getBroadcasts();
+    long getActionWaitP50Micros();
+    long getActionWaitP99Micros();
+    long getTurnResolutionP50Micros();
+    long getTurnResolutionP99Micros();
+    long getBroadcastP50Micros();
+    long getBroadcastP99Micros();
+    long getSpectatorFanOutP99Micros();
+    long getRttP50Micros();
+    long getRttP99Micros();
+}
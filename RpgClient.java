@@ -3,20 +3,25 @@ import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.Timer;
 import javax.swing.border.Border;
-import java.util.*;
-import java.util.List;
 import java.io.*;
-import java.net.*;
 
-public class RpgClient {
+public class RpgClient implements GameClient.Listener {
     private static final String SERVER_HOST = "localhost";
     private static final int SERVER_PORT = 12345;
+    // Uma tentativa de RESUME por segundo; cobre o --resume-grace padrão e um reinício do servidor
+    private static final int RESUME_ATTEMPTS = 60;
     
-    // Conexão
-    private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
-    private boolean connected = false;
+    // Sala escolhida na linha de comando (null = sala principal)
+    private final String roomName;
+    // --binary: pede o protocolo binário no HELLO (cai para texto se o servidor recusar)
+    private final boolean binaryRequested;
+    // --queue: entra na fila de partidas em vez de uma sala
+    private final boolean queueRequested;
+    // --spectate=SALA: só assiste a sala (sem nome, classe nem ações)
+    private final String spectateRoom;
+    
+    // Conexão e estado dos jogadores (protocolo sem Swing)
+    private final GameClient client = new GameClient(this, SwingUtilities::invokeLater, true);
     
     // GUI
     int boardwidth = 800;
@@ -46,18 +51,21 @@ public class RpgClient {
     // Status do jogador
     String selectedClass = null;
     String playerName = null;
-    String[] classes = {"Mage", "Warrior", "Assassin", "Archer", "Necromancer", "Lancer"};
+    String[] classes = SkillCatalog.get().getClassNames();
     
     // Combate
     Timer battleTimer;
     JLabel timerLabel;
     int timeRemaining = 120;
+    int turnTimeLimit = 120;
     boolean actionSent = false;
-    List<Player> allPlayers = new ArrayList<>();
-    Player currentPlayer;
+    // Jogador local, atualizado pelo GameClient a cada keyframe
+    GameClient.Player currentPlayer;
     int healthPotions = 3;
     int manaPotions = 3;
     int currentTurnNumber = 0;
+    // Resultado do turno em andamento no log (ACTION_RESULT já chegou, falta o TURN_END)
+    boolean turnResultOpen = false;
     
     // Componentes dos status
     JLabel hpLabel;
@@ -69,7 +77,11 @@ public class RpgClient {
     JLabel statusEffectsLabel;
     JLabel turnLabel;
 
-    public RpgClient() {
+    public RpgClient(String roomName, boolean binaryRequested, boolean queueRequested, String spectateRoom) {
+        this.roomName = roomName;
+        this.binaryRequested = binaryRequested;
+        this.queueRequested = queueRequested;
+        this.spectateRoom = spectateRoom;
         setupGUI();
         connectToServer();
     }
@@ -84,25 +96,26 @@ public class RpgClient {
         frame.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                disconnect();
+                client.disconnect();
                 System.exit(0);
             }
         });
 
-        showNameScreen();
+        if (spectateRoom != null) {
+            showWaitingScreen();
+            waitingLabel.setText("Conectando para assistir a sala " + spectateRoom + "...");
+        } else {
+            showNameScreen();
+        }
         frame.setVisible(true);
     }
     
     private void connectToServer() {
         try {
-            socket = new Socket(SERVER_HOST, SERVER_PORT);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            out = new PrintWriter(socket.getOutputStream(), true);
-            connected = true;
-            
-            Thread receiveThread = new Thread(this::receiveMessages);
-            receiveThread.setDaemon(true);
-            receiveThread.start();
+            client.connect(SERVER_HOST, SERVER_PORT, binaryRequested);
+            if (spectateRoom != null) {
+                client.spectate(spectateRoom);
+            }
             
             SwingUtilities.invokeLater(() -> {
                 waitingLabel.setText("Conectado ao servidor!");
@@ -120,94 +133,168 @@ public class RpgClient {
         }
     }
     
-    private void receiveMessages() {
-        try {
-            String message;
-            while (connected && (message = in.readLine()) != null) {
-                System.out.println("[CLIENT] Recebido: " + message);
-                processServerMessage(message);
-            }
-        } catch (IOException e) {
-            if (connected) {
-                SwingUtilities.invokeLater(() -> {
-                    JOptionPane.showMessageDialog(frame, "Conexão com servidor perdida!");
-                });
-            }
+    // Eventos do servidor, entregues na thread do Swing pelo GameClient
+    @Override
+    public void onJoinSuccess() {
+        showLobbyScreen();
+    }
+    
+    @Override
+    public void onJoinRejected(String reason) {
+        JOptionPane.showMessageDialog(frame, "Entrada rejeitada: " + reason);
+    }
+    
+    @Override
+    public void onQueued(int queuedPlayers) {
+        waitingLabel.setText("Na fila de partidas (" + queuedPlayers + " jogadores)");
+        waitingLabel.setForeground(Color.ORANGE);
+    }
+    
+    @Override
+    public void onQueueRejected(String reason) {
+        JOptionPane.showMessageDialog(frame, "Fila rejeitada: " + reason);
+    }
+    
+    @Override
+    public void onMatchFound(String room) {
+        waitingLabel.setText("Partida encontrada na sala " + room + "!");
+        waitingLabel.setForeground(Color.GREEN);
+    }
+    
+    @Override
+    public void onSpectating(String room) {
+        showLobbyScreen();
+        waitingLabel.setText("Assistindo a sala " + room);
+    }
+    
+    @Override
+    public void onSpectateRejected(String reason) {
+        JOptionPane.showMessageDialog(frame, "Não foi possível assistir: " + reason);
+    }
+    
+    @Override
+    public void onSpectateEnded(String room) {
+        stopTimer();
+        JOptionPane.showMessageDialog(frame, "A sala " + room + " foi encerrada.");
+    }
+    
+    @Override
+    public void onRoomMessage(String[] parts) {
+        System.out.println("[CLIENT] " + String.join("|", parts));
+    }
+    
+    @Override
+    public void onLobbyUpdate(String[] parts) {
+        updateLobbyDisplay(parts);
+    }
+    
+    @Override
+    public void onCountdown(String seconds) {
+        waitingLabel.setText("Partida começa em " + seconds + " segundos!");
+        waitingLabel.setForeground(Color.GREEN);
+    }
+    
+    @Override
+    public void onGameStart() {
+        showBattleScreen();
+    }
+    
+    @Override
+    public void onPlayersInfo(String[] parts) {
+        currentPlayer = client.getCurrentPlayer();
+        updatePlayerStatus();
+        sendPlayersInfoMessage(parts);
+    }
+    
+    @Override
+    public void onPlayersChanged() {
+        currentPlayer = client.getCurrentPlayer();
+        updatePlayerStatus();
+    }
+    
+    @Override
+    public void onTurnStart(int turn, int timeLimit) {
+        currentTurnNumber = turn;
+        if (timeLimit > 0) {
+            turnTimeLimit = timeLimit;
         }
+        startNewTurn();
     }
     
-    private void processServerMessage(String message) {
-        String[] parts = message.split("\\|");
-        String command = parts[0];
-        
-        SwingUtilities.invokeLater(() -> {
-            switch (command) {
-                case "JOIN_SUCCESS":
-                    showLobbyScreen();
-                    break;
-                    
-                case "JOIN_REJECTED":
-                    String reason = parts.length > 1 ? parts[1] : "Motivo desconhecido";
-                    JOptionPane.showMessageDialog(frame, "Entrada rejeitada: " + reason);
-                    break;
-                    
-                case "LOBBY_UPDATE":
-                    updateLobbyDisplay(parts);
-                    break;
-                    
-                case "GAME_START":
-                    showBattleScreen();
-                    break;
-                    
-                case "PLAYERS_INFO":
-                    updatePlayersInfo(parts);
-                    sendPlayersInfoMessage(parts);
-                    break;
-                    
-                case "PLAYERS_UPDATE":
-                    updatePlayersInfo(parts);
-                    updatePlayerStatus();
-                    break;
-                    
-                case "START_TURN":
-                    if (parts.length > 1) {
-                        currentTurnNumber = Integer.parseInt(parts[1]);
-                        startNewTurn();
-                    }
-                    break;
-                    
-                case "TURN_RESULT":
-                    processTurnResult(parts);
-                    break;
-                    
-                case "GAME_END":
-                    String winner = parts.length > 1 ? parts[1] : "Desconhecido";
-                    handleGameEnd(winner);
-                    break;
-                      
-                default:
-                    System.out.println("[CLIENT] Comando desconhecido: " + command);
-                    break;
-            }
-        });
+    @Override
+    public void onTurnResult(String[] parts) {
+        processTurnResult(parts);
     }
     
-    private void sendMessage(String message) {
-        if (connected && out != null) {
-            System.out.println("[CLIENT] Enviando: " + message);
-            out.println(message);
+    // Modo STREAM do servidor: cada ação aparece assim que chega
+    @Override
+    public void onActionResult(int turn, String result) {
+        if (!turnResultOpen) {
+            beginTurnResult();
         }
+        appendTurnResult(result);
     }
     
-    private void disconnect() {
-        connected = false;
-        try {
-            if (socket != null) socket.close();
-        } catch (IOException e) {
-
+    @Override
+    public void onTurnEnd(int turn) {
+        if (!turnResultOpen) {
+            beginTurnResult();
         }
+        endTurnResult();
+    }
+    
+    @Override
+    public void onGameEnd(String winner) {
+        handleGameEnd(winner);
+    }
+    
+    @Override
+    public void onUnknownMessage(String[] parts) {
+        System.out.println("[CLIENT] Comando desconhecido: " + parts[0]);
     }
+    
+    // Com a ficha do JOIN_SUCCESS tenta voltar para o mesmo lugar antes de desistir
+    @Override
+    public void onConnectionLost() {
+        if (client.getResumeToken() == null) {
+            JOptionPane.showMessageDialog(frame, "Conexão com servidor perdida!");
+            return;
+        }
+        battleLog.append("\nConexão perdida - tentando reconectar...\n");
+        waitingLabel.setText("Conexão perdida - tentando reconectar...");
+        waitingLabel.setForeground(Color.ORANGE);
 
+        Thread reconnect = new Thread(() -> {
+            for (int attempt = 0; attempt < RESUME_ATTEMPTS; attempt++) {
+                try {
+                    Thread.sleep(1000);
+                    client.resume(SERVER_HOST, SERVER_PORT, binaryRequested);
+                    return;
+                } catch (IOException e) {
+                    // servidor ainda fora do ar
+                } catch (InterruptedException | IllegalStateException e) {
+                    break;
+                }
+            }
+            SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(frame, "Conexão com servidor perdida!"));
+        }, "client-resume");
+        reconnect.setDaemon(true);
+        reconnect.start();
+    }
+    
+    @Override
+    public void onResumed() {
+        battleLog.append("Reconectado!\n");
+        waitingLabel.setText("Reconectado ao servidor!");
+        waitingLabel.setForeground(Color.GREEN);
+    }
+    
+    @Override
+    public void onResumeRejected(String reason) {
+        JOptionPane.showMessageDialog(frame, "Não foi possível voltar à partida: " + reason);
+    }
+    
     private void showNameScreen() {
         nameLabel.setFont(new Font("Times New Roman", Font.PLAIN, 25));
         nameConfirmButton.setFont(new Font("Arial", Font.BOLD, 20));
@@ -244,7 +331,7 @@ public class RpgClient {
             String inputName = nameField.getText().trim();
             if (inputName.isEmpty()) {
                 JOptionPane.showMessageDialog(frame, "Digite um nome antes de continuar!");
-            } else if (!connected) {
+            } else if (!client.isConnected()) {
                 JOptionPane.showMessageDialog(frame, "Não conectado ao servidor!");
             } else {
                 playerName = inputName;
@@ -302,10 +389,17 @@ public class RpgClient {
         confirmButton.addActionListener(e -> {
             if (selectedClass == null) {
                 JOptionPane.showMessageDialog(frame, "Você precisa escolher uma classe primeiro!");
-            } else if (!connected) {
+            } else if (!client.isConnected()) {
                 JOptionPane.showMessageDialog(frame, "Não conectado ao servidor!");
             } else {
-                sendMessage("JOIN|" + playerName + "|" + selectedClass);
+                if (queueRequested) {
+                    client.queue(playerName, selectedClass);
+                } else if (roomName != null) {
+                    client.createRoom(roomName);
+                    client.joinRoom(roomName, playerName, selectedClass);
+                } else {
+                    client.join(playerName, selectedClass);
+                }
                 
                 frame.remove(textPanel);
                 frame.remove(boardPanel);
@@ -398,7 +492,7 @@ public class RpgClient {
                 String playerClass = playerInfo[1];
                 playersList.append((i) + ". " + name + "\n");
                 playersList.append("   Classe: " + playerClass + "\n");
-                playersList.append("   Agilidade: " + getClassAgility(playerClass) + "\n\n");
+                playersList.append("   Agilidade: " + SkillCatalog.get().getAgility(playerClass) + "\n\n");
             }
         }
         
@@ -414,18 +508,6 @@ public class RpgClient {
         }
     }
     
-    private int getClassAgility(String className) {
-        Map<String, Integer> agility = new HashMap<String, Integer>() {{
-            put("Assassin", 6);
-            put("Archer", 5);
-            put("Mage", 4);
-            put("Necromancer", 3);
-            put("Lancer", 2);
-            put("Warrior", 1);
-        }};
-        return agility.getOrDefault(className, 1);
-    }
-
     private void showBattleScreen() {
         frame.getContentPane().removeAll();
         frame.setLayout(new BorderLayout());
@@ -556,7 +638,11 @@ public class RpgClient {
         frame.add(mainPanel, BorderLayout.CENTER);
         
         battleLog.append("=== BATALHA INICIADA! ===\n");
-        battleLog.append("Você está jogando como: " + playerName + " (" + selectedClass + ")\n");
+        if (spectateRoom != null) {
+            battleLog.append("Assistindo a sala: " + spectateRoom + "\n");
+        } else {
+            battleLog.append("Você está jogando como: " + playerName + " (" + selectedClass + ")\n");
+        }
         battleLog.append("Tempo por turno: 2 minutos\n");
         battleLog.append("=====================================\n");
         
@@ -594,7 +680,7 @@ public class RpgClient {
             if (playerData.length >= 2) {
                 String name = playerData[0];
                 String playerClass = playerData[1];
-                battleLog.append("- " + name + " (" + playerClass + ") - Agilidade: " + getClassAgility(playerClass) + "\n");
+                battleLog.append("- " + name + " (" + playerClass + ") - Agilidade: " + SkillCatalog.get().getAgility(playerClass) + "\n");
             }
         }
         battleLog.append("=====================================\n");
@@ -602,60 +688,33 @@ public class RpgClient {
         battleLog.setCaretPosition(battleLog.getDocument().getLength());
     }
     
-    private void updatePlayersInfo(String[] parts) {
-        allPlayers.clear();
-        
+    private void processTurnResult(String[] parts) {
+        beginTurnResult();
         for (int i = 1; i < parts.length; i++) {
-            String[] playerData = parts[i].split(",");
-            if (playerData.length >= 9) {
-                String name = playerData[0];
-                String playerClass = playerData[1];
-                int agility = Integer.parseInt(playerData[2]);
-                int hp = Integer.parseInt(playerData[3]);
-                int maxHP = Integer.parseInt(playerData[4]);
-                int mp = Integer.parseInt(playerData[5]);
-                int maxMP = Integer.parseInt(playerData[6]);
-                boolean isAlive = Boolean.parseBoolean(playerData[7]);
-                String statusEffects = playerData[8];
-                
-                Player player = new Player(name, playerClass);
-                player.hp = hp;
-                player.maxHP = maxHP;
-                player.mp = mp;
-                player.maxMP = maxMP;
-                player.isAlive = isAlive;
-                player.statusEffects = statusEffects;
-                allPlayers.add(player);
-                
-                if (name.equals(playerName)) {
-                    currentPlayer = player;
-                }
-            }
-        }
-        
-
-        if (currentPlayer != null) {
-            updatePlayerStatus();
+            appendTurnResult(parts[i]);
         }
+        endTurnResult();
     }
     
-    private void processTurnResult(String[] parts) {
+    private void beginTurnResult() {
         stopTimer();
-        
+        turnResultOpen = true;
         battleLog.append("\n=== RESULTADO DO TURNO " + currentTurnNumber + " ===\n");
-        
-        for (int i = 1; i < parts.length; i++) {
-            if (!parts[i].isEmpty()) {
-                battleLog.append(parts[i] + "\n");
-            }
+        battleLog.setCaretPosition(battleLog.getDocument().getLength());
+    }
+    
+    private void appendTurnResult(String result) {
+        if (!result.isEmpty()) {
+            battleLog.append(result + "\n");
+            battleLog.setCaretPosition(battleLog.getDocument().getLength());
         }
-        
+    }
+    
+    private void endTurnResult() {
+        turnResultOpen = false;
         battleLog.append("=== FIM DO TURNO " + currentTurnNumber + " ===\n");
         battleLog.append("=====================================\n");
-        
         battleLog.setCaretPosition(battleLog.getDocument().getLength());
-        
-
     }
     
     private void handleGameEnd(String winner) {
@@ -669,6 +728,9 @@ public class RpgClient {
         } else {
             battleLog.append("Vencedor: " + winner + "\n");
         }
+        if (client.getMatchSeed() != null) {
+            battleLog.append("Semente da partida: " + client.getMatchSeed() + "\n");
+        }
         battleLog.append("=====================================\n");
         
         for (Component comp : actionPanel.getComponents()) {
@@ -676,13 +738,14 @@ public class RpgClient {
         }
         
         String message = winner.equals(playerName) ? "Parabéns! Você venceu!" : 
-                        winner.equals("Empate") ? "Empate!" : "Você foi derrotado! Vencedor: " + winner;
+                        winner.equals("Empate") ? "Empate!" :
+                        spectateRoom != null ? "Vencedor: " + winner : "Você foi derrotado! Vencedor: " + winner;
         
         Timer delayTimer = new Timer(2000, e -> {
             int result = JOptionPane.showConfirmDialog(frame, message + "\n\nDeseja sair?", 
                                                       "Fim de Jogo", JOptionPane.YES_NO_OPTION);
             if (result == JOptionPane.YES_OPTION) {
-                disconnect();
+                client.disconnect();
                 System.exit(0);
             }
         });
@@ -696,20 +759,20 @@ public class RpgClient {
         actionPanel.removeAll();
         
         // Verificar status
-        if (currentPlayer.statusEffects.contains("frozen") || currentPlayer.statusEffects.contains("stunned")) {
+        if (currentPlayer.hasAnyStatusEffect(StatusEffect.PARALYZING)) {
             JLabel stunLabel = new JLabel("<html><center><b>Você está " + 
-                (currentPlayer.statusEffects.contains("frozen") ? "CONGELADO" : "ATORDOADO") + 
+                (currentPlayer.hasAnyStatusEffect(StatusEffect.FROZEN.bit) ? "CONGELADO" : "ATORDOADO") + 
                 "!</b><br>Não pode agir este turno!</center></html>");
             stunLabel.setFont(new Font("Arial", Font.BOLD, 18));
             stunLabel.setForeground(Color.RED);
             actionPanel.add(stunLabel);
             
             // Ação automática
-            sendMessage("ACTION|" + playerName + "|paralyzed| | ");
+            client.sendParalyzed();
             actionSent = true;
             
             battleLog.append("Você está " + 
-                (currentPlayer.statusEffects.contains("frozen") ? "congelado" : "atordoado") + 
+                (currentPlayer.hasAnyStatusEffect(StatusEffect.FROZEN.bit) ? "congelado" : "atordoado") + 
                 " e não pode agir!\n");
             battleLog.append("Aguardando ações dos outros jogadores...\n");
             battleLog.setCaretPosition(battleLog.getDocument().getLength());
@@ -761,7 +824,7 @@ public class RpgClient {
         backButton.addActionListener(e -> createMainActionButtons());
         actionPanel.add(backButton);
         
-        for (Player player : allPlayers) {
+        for (GameClient.Player player : client.getPlayers()) {
             if (!player.name.equals(playerName) && player.isAlive) {
                 JButton targetButton = new JButton("<html><center>" + player.name + "<br>(" + player.playerClass + ")<br>HP: " + player.hp + "/" + player.maxHP + "</center></html>");
                 targetButton.setFont(new Font("Arial", Font.BOLD, 10));
@@ -784,8 +847,7 @@ public class RpgClient {
         backButton.addActionListener(e -> showAttackOptions());
         actionPanel.add(backButton);
         
-        SkillInfo[] skills = getClassSkills(selectedClass);
-        for (SkillInfo skill : skills) {
+        for (SkillInfo skill : SkillCatalog.get().getSkills(selectedClass)) {
             JButton skillButton = new JButton("<html><center>" + skill.name + "<br>MP: " + skill.mpCost + 
                                              (skill.specialEffect != null ? "<br><i>" + skill.description + "</i>" : "") + 
                                              "</center></html>");
@@ -797,7 +859,7 @@ public class RpgClient {
                 skillButton.setToolTipText("MP insuficiente");
             }
             
-            skillButton.addActionListener(e -> executeAttack(target, skill.name));
+            skillButton.addActionListener(e -> executeAttack(target, skill));
             actionPanel.add(skillButton);
         }
         
@@ -805,59 +867,12 @@ public class RpgClient {
         actionPanel.repaint();
     }
     
-    private SkillInfo[] getClassSkills(String className) {
-        switch (className) {
-            case "Mage":
-                return new SkillInfo[]{
-                    new SkillInfo("Bola de Fogo", 16, 2, null, "Dano básico de fogo"),
-                    new SkillInfo("Raio Gélido", 25, 4, null, "Dano de gelo"),
-                    new SkillInfo("Meteoro Congelante", 40, 8, "freeze", "Congela o inimigo!")
-                };
-            case "Warrior":
-                return new SkillInfo[]{
-                    new SkillInfo("Golpe de Espada", 10, 0, null, "Ataque básico com espada"),
-                    new SkillInfo("Investida Furiosa", 15, 5, null, "Investida poderosa"),
-                    new SkillInfo("Berserker", 30, 10, "burn", "Inimigo sangra!")
-                };
-            case "Assassin":
-                return new SkillInfo[]{
-                    new SkillInfo("Punhalada", 12, 0, null, "Ataque furtivo básico"),
-                    new SkillInfo("Ataque Furtivo", 25, 5, null, "Ataque pelas costas"),
-                    new SkillInfo("Lâmina Venenosa", 38, 10, "poison", "Veneno!")
-                };
-            case "Archer":
-                return new SkillInfo[]{
-                    new SkillInfo("Tiro Certeiro", 12, 0, null, "Tiro preciso"),
-                    new SkillInfo("Chuva de Flechas", 22, 5, null, "Múltiplas flechas"),
-                    new SkillInfo("Flecha Perfurante", 40, 10, "pierce", "Ignora defesa!")
-                };
-            case "Necromancer":
-                return new SkillInfo[]{
-                    new SkillInfo("Toque Sombrio", 15, 2, null, "Toque sombrio"),
-                    new SkillInfo("Raio Necrótico", 25, 4, null, "Energia sombria"),
-                    new SkillInfo("Drenar Vida", 33, 9, "lifesteal", "Drena vida do inimigo!")
-                };
-            case "Lancer":
-                return new SkillInfo[]{
-                    new SkillInfo("Investida da Lança", 10, 0, null, "Golpe básico de lança"),
-                    new SkillInfo("Giro Mortal", 15, 5, null, "Ataque giratório"),
-                    new SkillInfo("Perfuração Atordoante", 30, 10, "stun", "Atordoa o inimigo!")
-                };
-        }
-        
-        return new SkillInfo[]{
-            new SkillInfo("Ataque Básico", 10, 0, null, "Ataque padrão"),
-            new SkillInfo("Ataque Forte", 15, 5, null, "Ataque mais poderoso"),
-            new SkillInfo("Ataque Especial", 30, 10, null, "Ataque especial")
-        };
-    }
-    
-    private void executeAttack(String target, String skill) {
-        sendMessage("ACTION|" + playerName + "|attack|" + target + "|" + skill);
+    private void executeAttack(String target, SkillInfo skill) {
+        client.attack(target, skill);
         actionSent = true;
         stopTimer();
         
-        battleLog.append("Você preparou " + skill + " contra " + target + "!\n");
+        battleLog.append("Você preparou " + skill.name + " contra " + target + "!\n");
         battleLog.append("Aguardando ações dos outros jogadores...\n");
         battleLog.setCaretPosition(battleLog.getDocument().getLength());
         
@@ -865,7 +880,7 @@ public class RpgClient {
     }
     
     private void executeDefense() {
-        sendMessage("ACTION|" + playerName + "|defense| | ");
+        client.defend();
         actionSent = true;
         stopTimer();
         
@@ -908,7 +923,7 @@ public class RpgClient {
     }
     
     private void useItem(String item) {
-        sendMessage("ACTION|" + playerName + "|item| |" + item);
+        client.useItem(item);
         actionSent = true;
         stopTimer();
         
@@ -956,17 +971,17 @@ public class RpgClient {
             }
             
             if (statusEffectsLabel != null) {
-                if (currentPlayer.statusEffects != null && !currentPlayer.statusEffects.equals("Nenhum")) {
-                    statusEffectsLabel.setText("Status: " + currentPlayer.statusEffects);
+                if (currentPlayer.effectMask != 0) {
+                    statusEffectsLabel.setText("Status: " + StatusEffect.describe(currentPlayer.effectMask, currentPlayer.effectTurns));
                     
                     // Colorir o texto do status
-                    if (currentPlayer.statusEffects.contains("poison")) {
+                    if (currentPlayer.hasAnyStatusEffect(StatusEffect.POISON.bit)) {
                         statusEffectsLabel.setForeground(Color.GREEN);
-                    } else if (currentPlayer.statusEffects.contains("frozen")) {
+                    } else if (currentPlayer.hasAnyStatusEffect(StatusEffect.FROZEN.bit)) {
                         statusEffectsLabel.setForeground(Color.CYAN);
-                    } else if (currentPlayer.statusEffects.contains("bleeding")) {
+                    } else if (currentPlayer.hasAnyStatusEffect(StatusEffect.BLEEDING.bit)) {
                         statusEffectsLabel.setForeground(Color.ORANGE);
-                    } else if (currentPlayer.statusEffects.contains("stunned")) {
+                    } else if (currentPlayer.hasAnyStatusEffect(StatusEffect.STUNNED.bit)) {
                         statusEffectsLabel.setForeground(Color.YELLOW);
                     } else {
                         statusEffectsLabel.setForeground(Color.MAGENTA);
@@ -980,7 +995,11 @@ public class RpgClient {
     }
     
     private void startBattleTimer() {
-        timeRemaining = 120;
+        timeRemaining = turnTimeLimit;
+        if (timerLabel != null) {
+            timerLabel.setText(String.format("Tempo: %02d:%02d", timeRemaining / 60, timeRemaining % 60));
+            timerLabel.setForeground(Color.BLACK);
+        }
         
         battleTimer = new Timer(1000, new ActionListener() {
             @Override
@@ -1010,10 +1029,9 @@ public class RpgClient {
                     battleTimer.stop();
                     if (!actionSent && currentPlayer != null && currentPlayer.isAlive) {
                         // Verificar se esta paralisado
-                        if (currentPlayer.statusEffects.contains("frozen") || 
-                            currentPlayer.statusEffects.contains("stunned")) {
+                        if (currentPlayer.hasAnyStatusEffect(StatusEffect.PARALYZING)) {
                             battleLog.append("TEMPO ESGOTADO! (Você está paralisado)\n");
-                            sendMessage("ACTION|" + playerName + "|paralyzed| | ");
+                            client.sendParalyzed();
                         } else {
                             battleLog.append("TEMPO ESGOTADO! Ação automática: DEFESA\n");
                             executeDefense();
@@ -1033,48 +1051,6 @@ public class RpgClient {
         }
     }
 
-    // Informações do jogador
-    static class Player {
-        String name;
-        String playerClass;
-        int hp;
-        int maxHP;
-        int mp;
-        int maxMP;
-        boolean isAlive;
-        boolean isDefending;
-        String statusEffects;
-        
-        Player(String name, String playerClass) {
-            this.name = name;
-            this.playerClass = playerClass;
-            this.hp = 100;
-            this.maxHP = 100;
-            this.mp = 20;
-            this.maxMP = 20;
-            this.isAlive = true;
-            this.isDefending = false;
-            this.statusEffects = "Nenhum";
-        }
-    }
-    
-    // Informações das habilidades
-    static class SkillInfo {
-        String name;
-        int baseDamage;
-        int mpCost;
-        String specialEffect;
-        String description;
-        
-        SkillInfo(String name, int baseDamage, int mpCost, String specialEffect, String description) {
-            this.name = name;
-            this.baseDamage = baseDamage;
-            this.mpCost = mpCost;
-            this.specialEffect = specialEffect;
-            this.description = description;
-        }
-    }
-
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             try {
@@ -1083,7 +1059,22 @@ public class RpgClient {
             
             }
             
-            new RpgClient();
+            String room = null;
+            boolean binary = false;
+            boolean queue = false;
+            String spectate = null;
+            for (String arg : args) {
+                if (arg.equals("--binary")) {
+                    binary = true;
+                } else if (arg.equals("--queue")) {
+                    queue = true;
+                } else if (arg.startsWith("--spectate=")) {
+                    spectate = arg.substring("--spectate=".length());
+                } else {
+                    room = arg;
+                }
+            }
+            new RpgClient(room, binary, queue, spectate);
         });
     }
 }
\ No newline at end of file
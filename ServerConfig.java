@@ -0,0 +1,185 @@
+// Configuração do servidor lida da linha de comando
+public class ServerConfig {
+    enum Transport { THREAD, VIRTUAL, NIO }
+    // SKIP só para espectadores: junta o estado como COALESCE e pula os quadros mais antigos
+    enum SlowClientPolicy { DROP, COALESCE, SKIP }
+    enum TurnResults { BATCH, STREAM }
+
+    int port = 12345;
+    Transport transport = Transport.THREAD;
+    int ioThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    boolean headless = false;
+    // Início automático: mínimo de jogadores + contagem regressiva (sala cheia inicia na hora)
+    boolean autoStart = false;
+    int startCountdownSeconds = 15;
+    // Prazo padrão de cada turno; salas podem definir o próprio em CREATE_ROOM
+    int turnTimeoutSeconds = 120;
+    // A cada N turnos PLAYERS_UPDATE completo em vez de PLAYERS_DELTA (0 = sempre completo)
+    int keyframeInterval = 10;
+    // BATCH: um TURN_RESULT com todas as ações; STREAM: um ACTION_RESULT por ação na ordem
+    // de execução, o estado dos jogadores e TURN_END (clientes antigos só entendem BATCH)
+    TurnResults turnResults = TurnResults.BATCH;
+    // Mensagens pendentes por cliente antes de aplicar a política de cliente lento
+    int outboundQueueLimit = 256;
+    SlowClientPolicy slowClientPolicy = SlowClientPolicy.COALESCE;
+    // Porta local do texto de métricas (/metrics); 0 = desligado
+    int metricsPort = 0;
+    // Log: nível mínimo (DEBUG mostra cada ação), arquivo com rotação ("" = só console
+    // e janela; o arquivo só com --log-file)
+    ServerLog.Level logLevel = ServerLog.Level.INFO;
+    String logFile = "";
+    long logMaxFileBytes = 10L * 1024 * 1024;
+    int logMaxFiles = 5;
+    int logBufferSize = 65536;
+    // Linhas mantidas na janela do servidor
+    int logWindowLines = 1000;
+    // Diário das partidas (um arquivo por partida, "" = desligado) e intervalo do commit em grupo
+    String journalDir = "";
+    long journalFlushMillis = 50;
+    // Fotos das partidas a cada fim de turno ("" = desligado) e prazo para os jogadores
+    // voltarem depois que o servidor reinicia e restaura a partida
+    String snapshotDir = "";
+    int restoreGraceSeconds = 30;
+    // Quem cai mantém o lugar por N segundos esperando RESUME (0 = sai na hora)
+    int resumeGraceSeconds = 15;
+    // PING a cada N segundos (mede o RTT; 0 = desligado) e desconexão de quem fica
+    // mudo por M segundos, nem PONG (0 = nunca, o padrão: clientes sem PING ficam
+    // calados no lobby); M deve passar de N com folga
+    int pingIntervalSeconds = 10;
+    int idleTimeoutSeconds = 0;
+    // Fila de partidas (QUEUE): jogadores por partida, espera máxima do mais antigo antes
+    // de iniciar com quem houver, e uma classe de cada por partida enquanto der
+    int matchSize = GameRoom.MAX_PLAYERS;
+    int queueWaitSeconds = 15;
+    boolean matchDistinctClasses = false;
+    // Espectadores (SPECTATE) por sala (0 = desligado) e a fila de saída de cada um,
+    // que nunca desconecta: junta o estado e pula quadros antigos
+    int maxSpectators = 1000;
+    int spectatorQueueLimit = 64;
+    // Semente base das partidas; null = cada partida sorteia a sua
+    Long seed = null;
+
+    // Exemplo: --headless --transport=nio --io-threads=2 --port=12345 --start-countdown=10
+    static ServerConfig fromArgs(String[] args) {
+        ServerConfig config = new ServerConfig();
+        for (String arg : args) {
+            String key = arg;
+            String value = "";
+            int eq = arg.indexOf('=');
+            if (eq >= 0) {
+                key = arg.substring(0, eq);
+                value = arg.substring(eq + 1);
+            }
+
+            switch (key) {
+                case "--port":
+                    config.port = Integer.parseInt(value);
+                    break;
+                case "--transport":
+                    config.transport = Transport.valueOf(value.toUpperCase());
+                    break;
+                case "--nio":
+                    config.transport = Transport.NIO;
+                    break;
+                case "--virtual":
+                    config.transport = Transport.VIRTUAL;
+                    break;
+                case "--headless":
+                    config.headless = true;
+                    config.autoStart = true;
+                    break;
+                case "--auto-start":
+                    config.autoStart = true;
+                    break;
+                case "--start-countdown":
+                    config.autoStart = true;
+                    config.startCountdownSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--turn-timeout":
+                    config.turnTimeoutSeconds = Math.max(5, Integer.parseInt(value));
+                    break;
+                case "--keyframe-interval":
+                    config.keyframeInterval = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--turn-results":
+                    config.turnResults = TurnResults.valueOf(value.toUpperCase());
+                    break;
+                case "--outbound-queue":
+                    config.outboundQueueLimit = Math.max(8, Integer.parseInt(value));
+                    break;
+                case "--slow-client":
+                    config.slowClientPolicy = SlowClientPolicy.valueOf(value.toUpperCase());
+                    if (config.slowClientPolicy == SlowClientPolicy.SKIP) {
+                        throw new IllegalArgumentException("--slow-client=skip só vale para espectadores");
+                    }
+                    break;
+                case "--metrics-port":
+                    config.metricsPort = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--log-level":
+                    config.logLevel = ServerLog.Level.valueOf(value.toUpperCase());
+                    break;
+                case "--log-file":
+                    config.logFile = value;
+                    break;
+                case "--log-max-size":
+                    config.logMaxFileBytes = Math.max(1, Long.parseLong(value)) * 1024 * 1024;
+                    break;
+                case "--log-files":
+                    config.logMaxFiles = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--log-buffer":
+                    config.logBufferSize = Math.max(64, Integer.parseInt(value));
+                    break;
+                case "--log-window-lines":
+                    config.logWindowLines = Math.max(10, Integer.parseInt(value));
+                    break;
+                case "--journal-dir":
+                    config.journalDir = value;
+                    break;
+                case "--journal-flush":
+                    config.journalFlushMillis = Math.max(1, Long.parseLong(value));
+                    break;
+                case "--snapshot-dir":
+                    config.snapshotDir = value;
+                    break;
+                case "--restore-grace":
+                    config.restoreGraceSeconds = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--resume-grace":
+                    config.resumeGraceSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--ping-interval":
+                    config.pingIntervalSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--idle-timeout":
+                    config.idleTimeoutSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--match-size":
+                    config.matchSize = Math.max(GameRoom.MIN_PLAYERS, Math.min(GameRoom.MAX_PLAYERS, Integer.parseInt(value)));
+                    break;
+                case "--queue-wait":
+                    config.queueWaitSeconds = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--match-distinct-classes":
+                    config.matchDistinctClasses = true;
+                    break;
+                case "--max-spectators":
+                    config.maxSpectators = Math.max(0, Integer.parseInt(value));
+                    break;
+                case "--spectator-queue":
+                    config.spectatorQueueLimit = Math.max(8, Integer.parseInt(value));
+                    break;
+                case "--seed":
+                    config.seed = Long.parseLong(value);
+                    break;
+                case "--io-threads":
+                    config.ioThreads = Math.max(1, Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+        return config;
+    }
+}
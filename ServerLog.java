@@ -0,0 +1,279 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Log assíncrono: quem loga só grava num anel de tamanho fixo (sem trava, CAS na
+// posição) e uma thread escreve em lotes no console, no arquivo com rotação e nos
+// observadores (janela). Com o anel cheio a linha é descartada e contada: o log
+// nunca segura uma thread do jogo.
+public class ServerLog {
+    enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final int MAX_BATCH = 1024;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final class Entry {
+        final long timeMillis;
+        final Level level;
+        final String message;
+
+        Entry(long timeMillis, Level level, String message) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    // Anel: cada posição tem um número de sequência que diz se está livre para a
+    // volta atual (seq == posição) ou publicada (seq == posição + 1)
+    private final Entry[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    private final Level level;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final Consumer<java.util.List<String>> batchListener;
+    private final LongAdder dropped = new LongAdder();
+    private long droppedReported = 0;
+
+    private final Thread writer;
+    private volatile boolean writerSleeping = false;
+    private volatile boolean running = true;
+    // Escritor e gancho de encerramento não esvaziam ao mesmo tempo
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private Writer fileWriter;
+    private long fileBytes;
+
+    ServerLog(ServerConfig config, Consumer<java.util.List<String>> batchListener) {
+        int capacity = Integer.highestOneBit(Math.max(2, config.logBufferSize - 1)) << 1;
+        this.entries = new Entry[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.level = config.logLevel;
+        this.file = config.logFile.isEmpty() ? null : Paths.get(config.logFile);
+        this.maxFileBytes = config.logMaxFileBytes;
+        this.maxFiles = config.logMaxFiles;
+        this.batchListener = batchListener;
+
+        writer = new Thread(this::run, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Esvazia o anel ao encerrar (System.exit da janela ou Ctrl+C)
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "log-shutdown"));
+    }
+
+    boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0;
+    }
+
+    void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    void log(Level messageLevel, String message) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        Entry entry = new Entry(System.currentTimeMillis(), messageLevel, message);
+
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entries[index] = entry;
+                    // Escrita volátil: publica a entrada para o escritor
+                    sequences.set(index, position + 1);
+                    break;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // Anel cheio: o escritor não acompanhou
+                dropped.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        if (writerSleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Só o escritor consome
+    private Entry poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Entry entry = entries[index];
+        entries[index] = null;
+        sequences.set(index, head + entries.length);
+        head++;
+        return entry;
+    }
+
+    private void run() {
+        java.util.List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            if (!drain(batch)) {
+                writerSleeping = true;
+                // Confere de novo depois de avisar: quem publicou antes viu writerSleeping falso
+                if (sequences.get((int) (head & mask)) != head + 1) {
+                    LockSupport.parkNanos(100_000_000L);
+                }
+                writerSleeping = false;
+            }
+        }
+    }
+
+    // Um lote: formata, escreve no console e no arquivo de uma vez e avisa a janela
+    private boolean drain(java.util.List<String> batch) {
+        drainLock.lock();
+        try {
+            return drainBatch(batch);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private boolean drainBatch(java.util.List<String> batch) {
+        batch.clear();
+        Entry entry;
+        while (batch.size() < MAX_BATCH && (entry = poll()) != null) {
+            batch.add(format(entry));
+        }
+        long droppedNow = dropped.sum();
+        if (droppedNow != droppedReported) {
+            batch.add(format(new Entry(System.currentTimeMillis(), Level.WARN,
+                    (droppedNow - droppedReported) + " linhas de log descartadas (anel cheio)")));
+            droppedReported = droppedNow;
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        StringBuilder text = new StringBuilder(batch.size() * 80);
+        for (String line : batch) {
+            text.append(line).append(System.lineSeparator());
+        }
+        System.out.print(text);
+        System.out.flush();
+        if (file != null) {
+            writeToFile(text.toString());
+        }
+        if (batchListener != null) {
+            batchListener.accept(Collections.unmodifiableList(new ArrayList<>(batch)));
+        }
+        return true;
+    }
+
+    private static String format(Entry entry) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timeMillis), ZoneId.systemDefault());
+        return TIME_FORMAT.format(time) + " " + String.format("%-5s", entry.level) + " " + entry.message;
+    }
+
+    // Rotação por tamanho: server.log -> server.log.1 -> ... -> server.log.N (o mais velho sai)
+    private void writeToFile(String text) {
+        try {
+            if (fileWriter == null) {
+                openFile();
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (fileBytes > 0 && fileBytes + bytes.length > maxFileBytes) {
+                rotate();
+            }
+            fileWriter.write(text);
+            fileWriter.flush();
+            fileBytes += bytes.length;
+        } catch (IOException e) {
+            System.err.println("[SERVER] Erro ao escrever o log em " + file + ": " + e.getMessage());
+            closeFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        fileBytes = Files.exists(file) ? Files.size(file) : 0;
+        fileWriter = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = Paths.get(file + "." + i);
+            if (Files.exists(source)) {
+                Files.move(source, Paths.get(file + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, Paths.get(file + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        openFile();
+    }
+
+    private void closeFile() {
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+            }
+            fileWriter = null;
+        }
+    }
+
+    void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        java.util.List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (drain(batch)) {
+            // esvazia o que sobrou
+        }
+        drainLock.lock();
+        try {
+            closeFile();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+}
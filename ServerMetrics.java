@@ -0,0 +1,357 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+// Métricas do servidor: contadores LongAdder e histogramas sem trava, atualizados
+// fora das travas do jogo. Expostas no JMX (domínio RpgDeTurno, uma entrada por
+// sala) e em texto no formato do Prometheus em http://127.0.0.1:<porta>/metrics.
+public class ServerMetrics implements ServerMetricsMBean {
+    private static final String DOMAIN = "RpgDeTurno";
+
+    private final GameServer server;
+    final LongAdder messagesIn = new LongAdder();
+    final LongAdder messagesOut = new LongAdder();
+    final LongAdder bytesOut = new LongAdder();
+    final LongAdder turnsResolved = new LongAdder();
+    final LongAdder gamesStarted = new LongAdder();
+    final LongAdder gamesFinished = new LongAdder();
+    final LongAdder slowClientDrops = new LongAdder();
+    final LongAdder idleEvictions = new LongAdder();
+    final LongAdder matchesMade = new LongAdder();
+    // Quadros antigos pulados nas filas dos espectadores lentos
+    final LongAdder spectatorSkips = new LongAdder();
+    // Soma de todas as salas (cada RoomMetrics registra aqui também)
+    final LatencyHistogram actionWait = new LatencyHistogram();
+    final LatencyHistogram turnResolution = new LatencyHistogram();
+    final LatencyHistogram broadcast = new LatencyHistogram();
+    // PING -> PONG de todas as conexões (as que estão em sala entram também na da sala)
+    final LatencyHistogram rtt = new LatencyHistogram();
+    // QUEUE até a sala formada
+    final LatencyHistogram queueWait = new LatencyHistogram();
+    // Publicação na sala até a entrega aos espectadores, e a entrega de cada lote
+    final LatencyHistogram spectatorLag = new LatencyHistogram();
+    final LatencyHistogram spectatorFanOut = new LatencyHistogram();
+    private HttpServer httpServer;
+
+    ServerMetrics(GameServer server) {
+        this.server = server;
+    }
+
+    // Chamado pelo escritor de cada cliente com os bytes já codificados
+    void recordSent(int bytes) {
+        messagesOut.increment();
+        bytesOut.add(bytes);
+    }
+
+    // JMX ----------------------------------------------------------------------
+
+    void registerMBean() {
+        register(this, "type=Server");
+    }
+
+    void registerRoom(GameRoom room) {
+        register(room.metrics, roomKey(room));
+    }
+
+    void unregisterRoom(GameRoom room) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(DOMAIN + ":" + roomKey(room)));
+        } catch (JMException e) {
+            // já não estava registrada
+        }
+    }
+
+    private static String roomKey(GameRoom room) {
+        return "type=Room,name=" + ObjectName.quote(room.name);
+    }
+
+    private void register(Object mbean, String key) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + key);
+            MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+            // Outro servidor na mesma JVM (ou sala recriada): fica a entrada mais nova
+            if (mbeans.isRegistered(name)) {
+                mbeans.unregisterMBean(name);
+            }
+            mbeans.registerMBean(mbean, name);
+        } catch (JMException e) {
+            server.logWarn("Métricas JMX indisponíveis para " + key + ": " + e.getMessage());
+        }
+    }
+
+    // Texto --------------------------------------------------------------------
+
+    // Só na interface local: sem autenticação, não deve ficar exposto na rede
+    void startHttp(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", exchange -> {
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder(4096);
+        appendGauge(sb, "rpg_connections_active", "Conexões abertas", getActiveConnections());
+        appendGauge(sb, "rpg_rooms_active", "Salas existentes", getActiveRooms());
+        appendGauge(sb, "rpg_queue_players", "Jogadores na fila de partidas", getQueuedPlayers());
+        appendGauge(sb, "rpg_spectators", "Espectadores em todas as salas", getSpectators());
+        appendCounter(sb, "rpg_spectator_skips_total", "Quadros pulados para espectadores lentos", getSpectatorSkips());
+        appendCounter(sb, "rpg_messages_in_total", "Mensagens recebidas dos clientes", getMessagesIn());
+        appendCounter(sb, "rpg_messages_out_total", "Mensagens escritas para os clientes", getMessagesOut());
+        appendCounter(sb, "rpg_bytes_out_total", "Bytes escritos para os clientes", getBytesOut());
+        appendCounter(sb, "rpg_turns_resolved_total", "Turnos resolvidos", getTurnsResolved());
+        appendCounter(sb, "rpg_games_started_total", "Partidas iniciadas", getGamesStarted());
+        appendCounter(sb, "rpg_games_finished_total", "Partidas finalizadas", getGamesFinished());
+        appendCounter(sb, "rpg_slow_client_drops_total", "Clientes lentos desconectados", getSlowClientDrops());
+        appendCounter(sb, "rpg_idle_evictions_total", "Clientes inativos desconectados", getIdleEvictions());
+        appendCounter(sb, "rpg_matches_made_total", "Partidas formadas pela fila", getMatchesMade());
+        appendCounter(sb, "rpg_log_dropped_total", "Linhas de log descartadas com o anel cheio", getLogLinesDropped());
+
+        appendSummaryHeader(sb, "rpg_turn_action_wait_micros", "START_TURN até a última ação");
+        appendSummary(sb, "rpg_turn_action_wait_micros", "", actionWait);
+        for (GameRoom room : server.getRooms()) {
+            appendSummary(sb, "rpg_turn_action_wait_micros", roomLabel(room), room.metrics.actionWait);
+        }
+        appendSummaryHeader(sb, "rpg_turn_resolution_micros", "Resolução do turno (regras)");
+        appendSummary(sb, "rpg_turn_resolution_micros", "", turnResolution);
+        for (GameRoom room : server.getRooms()) {
+            appendSummary(sb, "rpg_turn_resolution_micros", roomLabel(room), room.metrics.turnResolution);
+        }
+        appendSummaryHeader(sb, "rpg_broadcast_micros", "Broadcast para todos os membros da sala");
+        appendSummary(sb, "rpg_broadcast_micros", "", broadcast);
+        for (GameRoom room : server.getRooms()) {
+            appendSummary(sb, "rpg_broadcast_micros", roomLabel(room), room.metrics.broadcast);
+        }
+
+        appendSummaryHeader(sb, "rpg_queue_wait_micros", "Espera na fila de partidas");
+        appendSummary(sb, "rpg_queue_wait_micros", "", queueWait);
+
+        appendSummaryHeader(sb, "rpg_spectator_lag_micros", "Mensagem da sala até a fila de saída dos espectadores");
+        appendSummary(sb, "rpg_spectator_lag_micros", "", spectatorLag);
+        appendSummaryHeader(sb, "rpg_spectator_fanout_micros", "Entrega de um lote a todos os espectadores da sala");
+        appendSummary(sb, "rpg_spectator_fanout_micros", "", spectatorFanOut);
+        for (GameRoom room : server.getRooms()) {
+            appendSummary(sb, "rpg_spectator_fanout_micros", roomLabel(room), room.metrics.spectatorFanOut);
+        }
+
+        appendSummaryHeader(sb, "rpg_client_rtt_micros", "PING até o PONG");
+        appendSummary(sb, "rpg_client_rtt_micros", "", rtt);
+        for (GameRoom room : server.getRooms()) {
+            appendSummary(sb, "rpg_client_rtt_micros", roomLabel(room), room.metrics.rtt);
+        }
+
+        sb.append("# HELP rpg_room_players Jogadores na sala\n# TYPE rpg_room_players gauge\n");
+        for (GameRoom room : server.getRooms()) {
+            sb.append("rpg_room_players{").append(roomLabel(room)).append("} ").append(room.getMemberCount()).append('\n');
+        }
+        sb.append("# HELP rpg_room_spectators Espectadores da sala\n# TYPE rpg_room_spectators gauge\n");
+        for (GameRoom room : server.getRooms()) {
+            sb.append("rpg_room_spectators{").append(roomLabel(room)).append("} ").append(room.spectators.size()).append('\n');
+        }
+
+        // Por jogador: RTT suavizado e o maior visto (só quem já respondeu a um PING)
+        sb.append("# HELP rpg_player_rtt_micros RTT suavizado de cada jogador\n# TYPE rpg_player_rtt_micros gauge\n");
+        StringBuilder max = new StringBuilder(
+                "# HELP rpg_player_rtt_max_micros Maior RTT de cada jogador\n# TYPE rpg_player_rtt_max_micros gauge\n");
+        for (ClientHandler client : server.getConnectedClients()) {
+            String name = client.getPlayerName();
+            GameRoom room = client.getRoom();
+            long smoothed = client.getSmoothedRttMicros();
+            if (name == null || room == null || smoothed < 0) continue;
+            String labels = roomLabel(room) + ",player=\"" + escape(name) + "\"";
+            sb.append("rpg_player_rtt_micros{").append(labels).append("} ").append(smoothed).append('\n');
+            max.append("rpg_player_rtt_max_micros{").append(labels).append("} ").append(client.getMaxRttMicros()).append('\n');
+        }
+        sb.append(max);
+        return sb.toString();
+    }
+
+    private static void appendGauge(StringBuilder sb, String name, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendCounter(StringBuilder sb, String name, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSummaryHeader(StringBuilder sb, String name, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    // Linhas de quantis, _max, _sum e _count; labels vazio = total do servidor
+    private static void appendSummary(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (String quantile : new String[] {"0.5", "0.9", "0.99"}) {
+            sb.append(name).append("{").append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+              .append(histogram.getPercentile(Double.parseDouble(quantile) * 100)).append('\n');
+        }
+        String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        sb.append(name).append("_max").append(suffixLabels).append(' ').append(histogram.getMax()).append('\n');
+        sb.append(name).append("_sum").append(suffixLabels).append(' ').append(histogram.getSum()).append('\n');
+        sb.append(name).append("_count").append(suffixLabels).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static String roomLabel(GameRoom room) {
+        return "room=\"" + escape(room.name) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    // Atributos -----------------------------------------------------------------
+
+    @Override
+    public int getActiveConnections() {
+        return server.getConnectedClients().size();
+    }
+
+    @Override
+    public int getActiveRooms() {
+        return server.getRooms().size();
+    }
+
+    @Override
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    @Override
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getTurnsResolved() {
+        return turnsResolved.sum();
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public long getSlowClientDrops() {
+        return slowClientDrops.sum();
+    }
+
+    @Override
+    public int getQueuedPlayers() {
+        return server.matchmaker.getQueuedCount();
+    }
+
+    @Override
+    public long getMatchesMade() {
+        return matchesMade.sum();
+    }
+
+    @Override
+    public long getQueueWaitP50Micros() {
+        return queueWait.getPercentile(50);
+    }
+
+    @Override
+    public long getQueueWaitP99Micros() {
+        return queueWait.getPercentile(99);
+    }
+
+    @Override
+    public int getSpectators() {
+        int spectators = 0;
+        for (GameRoom room : server.getRooms()) {
+            spectators += room.spectators.size();
+        }
+        return spectators;
+    }
+
+    @Override
+    public long getSpectatorSkips() {
+        return spectatorSkips.sum();
+    }
+
+    @Override
+    public long getSpectatorLagP50Micros() {
+        return spectatorLag.getPercentile(50);
+    }
+
+    @Override
+    public long getSpectatorLagP99Micros() {
+        return spectatorLag.getPercentile(99);
+    }
+
+    @Override
+    public long getIdleEvictions() {
+        return idleEvictions.sum();
+    }
+
+    @Override
+    public long getLogLinesDropped() {
+        return server.log.getDroppedCount();
+    }
+
+    @Override
+    public long getActionWaitP50Micros() {
+        return actionWait.getPercentile(50);
+    }
+
+    @Override
+    public long getActionWaitP99Micros() {
+        return actionWait.getPercentile(99);
+    }
+
+    @Override
+    public long getTurnResolutionP50Micros() {
+        return turnResolution.getPercentile(50);
+    }
+
+    @Override
+    public long getTurnResolutionP99Micros() {
+        return turnResolution.getPercentile(99);
+    }
+
+    @Override
+    public long getBroadcastP50Micros() {
+        return broadcast.getPercentile(50);
+    }
+
+    @Override
+    public long getBroadcastP99Micros() {
+        return broadcast.getPercentile(99);
+    }
+
+    @Override
+    public long getRttP50Micros() {
+        return rtt.getPercentile(50);
+    }
+
+    @Override
+    public long getRttP99Micros() {
+        return rtt.getPercentile(99);
+    }
+}
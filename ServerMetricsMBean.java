@@ -0,0 +1,30 @@
+// Atributos do servidor no JMX (jconsole: RpgDeTurno/Server). Latências em microssegundos.
+public interface ServerMetricsMBean {
+    int getActiveConnections();
+    int getActiveRooms();
+    int getQueuedPlayers();
+    long getMatchesMade();
+    long getQueueWaitP50Micros();
+    long getQueueWaitP99Micros();
+    int getSpectators();
+    long getSpectatorSkips();
+    long getSpectatorLagP50Micros();
+    long getSpectatorLagP99Micros();
+    long getMessagesIn();
+    long getMessagesOut();
+    long getBytesOut();
+    long getTurnsResolved();
+    long getGamesStarted();
+    long getGamesFinished();
+    long getSlowClientDrops();
+    long getIdleEvictions();
+    long getLogLinesDropped();
+    long getActionWaitP50Micros();
+    long getActionWaitP99Micros();
+    long getTurnResolutionP50Micros();
+    long getTurnResolutionP99Micros();
+    long getBroadcastP50Micros();
+    long getBroadcastP99Micros();
+    long getRttP50Micros();
+    long getRttP99Micros();
+}
@@ -0,0 +1,228 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+
+// Janela Swing opcional sobre o motor do servidor
+public class ServerWindow extends JFrame implements GameServer.Listener {
+    private final GameServer server;
+    
+    private JTextArea serverLog;
+    // Linhas que chegaram do log e ainda não foram para a tela (no máximo logWindowLines)
+    private final ArrayDeque<String> pendingLogLines = new ArrayDeque<>();
+    private final ReentrantLock pendingLogLock = new ReentrantLock();
+    private boolean logUpdateScheduled = false;
+    private JTextArea playersArea;
+    private JButton startGameButton;
+    private JLabel statusLabel;
+
+    public ServerWindow(GameServer server) {
+        this.server = server;
+        setupGUI();
+        server.addListener(this);
+    }
+    
+    private void setupGUI() {
+        setTitle("RPG Server - Porta " + server.config.port);
+        setSize(800, 600);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+        
+        // Painel superior
+        JPanel topPanel = new JPanel(new BorderLayout());
+        statusLabel = new JLabel("Servidor iniciado - Aguardando conexões", SwingConstants.CENTER);
+        statusLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        statusLabel.setForeground(Color.GREEN);
+        topPanel.add(statusLabel, BorderLayout.CENTER);
+        
+        startGameButton = new JButton("INICIAR PARTIDA");
+        startGameButton.setFont(new Font("Arial", Font.BOLD, 14));
+        startGameButton.setEnabled(false);
+        startGameButton.addActionListener(e -> startGame());
+        topPanel.add(startGameButton, BorderLayout.EAST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        
+        // Painel central
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
+        
+        // Log do servidor
+        JPanel leftPanel = new JPanel(new BorderLayout());
+        leftPanel.setBorder(BorderFactory.createTitledBorder("Log do servidor"));
+        
+        serverLog = new JTextArea();
+        serverLog.setEditable(false);
+        serverLog.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane logScroll = new JScrollPane(serverLog);
+        leftPanel.add(logScroll, BorderLayout.CENTER);
+        
+        // Jogadores conectados
+        JPanel rightPanel = new JPanel(new BorderLayout());
+        rightPanel.setBorder(BorderFactory.createTitledBorder("Jogadores Conectados"));
+        
+        playersArea = new JTextArea();
+        playersArea.setEditable(false);
+        playersArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane playersScroll = new JScrollPane(playersArea);
+        rightPanel.add(playersScroll, BorderLayout.CENTER);
+        
+        splitPane.setLeftComponent(leftPanel);
+        splitPane.setRightComponent(rightPanel);
+        splitPane.setDividerLocation(400);
+        
+        add(splitPane, BorderLayout.CENTER);
+        
+        setLocationRelativeTo(null);
+    }
+    
+    // Lotes do escritor do log: no máximo uma atualização da tela pendente por vez
+    @Override
+    public void onLog(java.util.List<String> lines) {
+        int limit = server.config.logWindowLines;
+        boolean schedule;
+        pendingLogLock.lock();
+        try {
+            for (String line : lines) {
+                if (pendingLogLines.size() == limit) {
+                    pendingLogLines.removeFirst();
+                }
+                pendingLogLines.addLast(line);
+            }
+            schedule = !logUpdateScheduled;
+            logUpdateScheduled = true;
+        } finally {
+            pendingLogLock.unlock();
+        }
+
+        if (schedule) {
+            SwingUtilities.invokeLater(this::appendPendingLog);
+        }
+    }
+
+    private void appendPendingLog() {
+        StringBuilder text = new StringBuilder();
+        pendingLogLock.lock();
+        try {
+            for (String line : pendingLogLines) {
+                text.append(line).append("\n");
+            }
+            pendingLogLines.clear();
+            logUpdateScheduled = false;
+        } finally {
+            pendingLogLock.unlock();
+        }
+
+        serverLog.append(text.toString());
+        // Mantém só as últimas linhas na janela
+        int excess = serverLog.getLineCount() - 1 - server.config.logWindowLines;
+        if (excess > 0) {
+            try {
+                serverLog.replaceRange("", 0, serverLog.getLineStartOffset(excess));
+            } catch (BadLocationException e) {
+                serverLog.setText("");
+            }
+        }
+        serverLog.setCaretPosition(serverLog.getDocument().getLength());
+    }
+    
+    @Override
+    public void onStateChanged() {
+        updatePlayersDisplay();
+    }
+    
+    private void updatePlayersDisplay() {
+        SwingUtilities.invokeLater(() -> {
+            StringBuilder sb = new StringBuilder();
+            int queued = server.matchmaker.getQueuedCount();
+            if (queued > 0) {
+                sb.append("FILA DE PARTIDAS: ").append(queued).append(" jogadores\n\n");
+            }
+            sb.append("SALAS ABERTAS (").append(server.getRooms().size()).append(")\n");
+            sb.append("================================\n");
+            
+            int readyRooms = 0;
+            for (GameRoom room : server.getRooms()) {
+                java.util.List<Player> roomPlayers = room.getPlayersSnapshot();
+                sb.append("SALA ").append(room.name).append(" (").append(roomPlayers.size())
+                  .append("/").append(GameRoom.MAX_PLAYERS).append(")\n");
+                int spectators = room.spectators.size();
+                if (spectators > 0) {
+                    sb.append("ESPECTADORES: ").append(spectators).append("\n");
+                }
+                if (room.isBattleInProgress()) {
+                    sb.append("TURNO ATUAL: ").append(room.getCurrentTurnNumber()).append("\n");
+                } else if (roomPlayers.size() >= GameRoom.MIN_PLAYERS) {
+                    readyRooms++;
+                }
+                sb.append("--------------------------------\n");
+                
+                for (int i = 0; i < roomPlayers.size(); i++) {
+                    Player player = roomPlayers.get(i);
+                    sb.append(i + 1).append(". ").append(player.name).append("\n");
+                    sb.append("   Classe: ").append(player.playerClass).append("\n");
+                    sb.append("   Agilidade: ").append(player.getAgility()).append("\n");
+                    sb.append("   Status: ").append(player.isAlive ? "Vivo" : "Morto").append("\n");
+                    sb.append("   HP: ").append(player.hp).append("/").append(player.maxHP).append("\n");
+                    sb.append("   MP: ").append(player.mp).append("/").append(player.maxMP).append("\n");
+                    if (player.hasStatusEffects()) {
+                        sb.append("   Efeitos: ").append(player.getStatusEffectsString()).append("\n");
+                    }
+                    ClientHandler client = room.getMember(player.name);
+                    if (client != null) {
+                        sb.append("   Fila de saída: ").append(client.getOutboundDepth())
+                          .append(" (pico ").append(client.getOutboundPeak()).append(")\n");
+                    }
+                    sb.append("\n");
+                }
+            }
+            
+            playersArea.setText(sb.toString());
+            
+            // Botao de iniciar jogo
+            startGameButton.setEnabled(readyRooms > 0);
+            
+            if (readyRooms > 0) {
+                statusLabel.setText("Pronto para iniciar! (" + readyRooms + " salas)");
+                statusLabel.setForeground(Color.GREEN);
+            } else {
+                statusLabel.setText("Aguardando jogadores");
+                statusLabel.setForeground(Color.ORANGE);
+            }
+        });
+    }
+    
+    private void startGame() {
+        int started = server.startReadyRooms();
+        
+        if (started == 0) {
+            JOptionPane.showMessageDialog(this, "Mínimo de 2 jogadores necessário");
+            return;
+        }
+        
+        statusLabel.setText("PARTIDA EM ANDAMENTO (" + started + " salas)");
+        statusLabel.setForeground(Color.RED);
+    }
+    
+    @Override
+    public void onGameEnded(GameRoom room, String winnerName) {
+        SwingUtilities.invokeLater(() -> {
+            statusLabel.setText("Sala " + room.name + " finalizada - Vencedor: " + winnerName);
+            statusLabel.setForeground(Color.BLUE);
+            startGameButton.setText("NOVA PARTIDA");
+        });
+    }
+    
+    static void launch(GameServer server) {
+        SwingUtilities.invokeLater(() -> {
+            try {
+                UIManager.setLookAndFeel(UIManager.getLookAndFeel());
+            } catch (Exception e) {
+            }
+            
+            ServerWindow window = new ServerWindow(server);
+            window.setVisible(true);
+            server.start();
+        });
+    }
+}
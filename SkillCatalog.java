@@ -0,0 +1,158 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Classes e habilidades lidas de catalog.csv uma única vez; servidor e cliente
+// consultam as mesmas instâncias imutáveis, indexadas por id
+public final class SkillCatalog {
+    static final String FILE_NAME = "catalog.csv";
+
+    // Classe jogável com sua agilidade e habilidades na ordem do catálogo; o id é a
+    // posição no catálogo (o nome só serve para exibir e para o protocolo)
+    static final class ClassInfo {
+        final int id;
+        final String name;
+        final int agility;
+        private final java.util.List<SkillInfo> skillList = new ArrayList<>();
+        final java.util.List<SkillInfo> skills = Collections.unmodifiableList(skillList);
+
+        ClassInfo(int id, String name, int agility) {
+            this.id = id;
+            this.name = name;
+            this.agility = agility;
+        }
+    }
+
+    private final Map<String, ClassInfo> classes = new LinkedHashMap<>();
+    private ClassInfo[] classesById = new ClassInfo[0];
+    private SkillInfo[] skillsById = new SkillInfo[0];
+
+    private static volatile SkillCatalog instance;
+
+    static SkillCatalog get() {
+        SkillCatalog catalog = instance;
+        if (catalog == null) {
+            synchronized (SkillCatalog.class) {
+                if (instance == null) {
+                    instance = load();
+                }
+                catalog = instance;
+            }
+        }
+        return catalog;
+    }
+
+    // Procura no classpath e depois no diretório atual
+    private static SkillCatalog load() {
+        try (InputStream resource = SkillCatalog.class.getResourceAsStream("/" + FILE_NAME)) {
+            if (resource != null) {
+                return parse(new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8)));
+            }
+            Path path = Paths.get(FILE_NAME);
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    return parse(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler " + FILE_NAME + ": " + e.getMessage(), e);
+        }
+        throw new IllegalStateException("Catálogo " + FILE_NAME + " não encontrado");
+    }
+
+    static SkillCatalog parse(BufferedReader reader) throws IOException {
+        SkillCatalog catalog = new SkillCatalog();
+        java.util.List<SkillInfo> skills = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] fields = line.split(";", -1);
+            try {
+                if (fields[0].equals("class") && fields.length == 3) {
+                    if (catalog.classes.containsKey(fields[1])) {
+                        throw new IOException("classe repetida: " + fields[1]);
+                    }
+                    catalog.classes.put(fields[1], new ClassInfo(catalog.classes.size(), fields[1], Integer.parseInt(fields[2])));
+                } else if (fields[0].equals("skill") && fields.length == 8) {
+                    ClassInfo classInfo = catalog.classes.get(fields[2]);
+                    if (classInfo == null) {
+                        throw new IOException("classe não declarada antes: " + fields[2]);
+                    }
+                    SkillInfo skill = new SkillInfo(Integer.parseInt(fields[1]), classInfo.id, fields[2], fields[3],
+                            Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                            fields[6].isEmpty() ? null : fields[6], fields[7]);
+                    classInfo.skillList.add(skill);
+                    skills.add(skill);
+                } else {
+                    throw new IOException("registro inválido");
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(FILE_NAME + " linha " + lineNumber + ": número inválido");
+            } catch (IOException e) {
+                throw new IOException(FILE_NAME + " linha " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        catalog.classesById = catalog.classes.values().toArray(new ClassInfo[0]);
+        int maxId = -1;
+        for (SkillInfo skill : skills) {
+            maxId = Math.max(maxId, skill.id);
+        }
+        catalog.skillsById = new SkillInfo[maxId + 1];
+        for (SkillInfo skill : skills) {
+            if (skill.id < 0 || catalog.skillsById[skill.id] != null) {
+                throw new IOException(FILE_NAME + ": id de habilidade repetido ou negativo: " + skill.id);
+            }
+            catalog.skillsById[skill.id] = skill;
+        }
+        return catalog;
+    }
+
+    ClassInfo getClassInfo(String playerClass) {
+        return classes.get(playerClass);
+    }
+
+    // Na ordem do id
+    ClassInfo[] getClasses() {
+        return classesById.clone();
+    }
+
+    String[] getClassNames() {
+        return classes.keySet().toArray(new String[0]);
+    }
+
+    int getAgility(String playerClass) {
+        ClassInfo classInfo = classes.get(playerClass);
+        return classInfo != null ? classInfo.agility : 1;
+    }
+
+    java.util.List<SkillInfo> getSkills(String playerClass) {
+        ClassInfo classInfo = classes.get(playerClass);
+        return classInfo != null ? classInfo.skills : Collections.<SkillInfo>emptyList();
+    }
+
+    SkillInfo getSkill(int id) {
+        return id >= 0 && id < skillsById.length ? skillsById[id] : null;
+    }
+
+    // Aceita o id (protocolo atual) ou o nome (clientes antigos); só habilidades da classe
+    SkillInfo findSkill(ClassInfo classInfo, String idOrName) {
+        SkillInfo skill = null;
+        try {
+            skill = getSkill(Integer.parseInt(idOrName));
+        } catch (NumberFormatException e) {
+            for (SkillInfo candidate : classInfo.skills) {
+                if (candidate.name.equals(idOrName)) {
+                    skill = candidate;
+                    break;
+                }
+            }
+        }
+        return skill != null && skill.classId == classInfo.id ? skill : null;
+    }
+}
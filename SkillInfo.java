@@ -0,0 +1,24 @@
+// Habilidade do catálogo: imutável e compartilhada (uma instância por id)
+public final class SkillInfo {
+    final int id;
+    // Id da classe no catálogo (SkillCatalog.ClassInfo.id); o nome só para exibir
+    final int classId;
+    final String playerClass;
+    final String name;
+    final int baseDamage;
+    final int mpCost;
+    final String specialEffect;
+    final String description;
+
+    SkillInfo(int id, int classId, String playerClass, String name, int baseDamage, int mpCost,
+              String specialEffect, String description) {
+        this.id = id;
+        this.classId = classId;
+        this.playerClass = playerClass;
+        this.name = name;
+        this.baseDamage = baseDamage;
+        this.mpCost = mpCost;
+        this.specialEffect = specialEffect;
+        this.description = description;
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Fotos das partidas em andamento (uma por sala) em --snapshot-dir. A sala entrega a
+// foto já serializada no fim do turno; uma thread grava só a mais recente de cada
+// sala (arquivo temporário + rename, então nunca fica um arquivo pela metade). Quem
+// entrega nunca espera o disco: fotos seguidas da mesma sala substituem a pendente.
+public class SnapshotStore {
+    static final String EXTENSION = ".snap";
+    private static final byte[] REMOVED = new byte[0];
+    // Intervalo mínimo entre rodadas de gravação: junta os fins de turno de várias salas
+    private static final long WRITE_INTERVAL_NANOS = 100_000_000L;
+
+    private final GameServer server;
+    private final Path directory;
+    private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean writerSleeping = false;
+
+    SnapshotStore(GameServer server, Path directory) {
+        this.server = server;
+        this.directory = directory;
+
+        writer = new Thread(this::run, "snapshot-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void submit(String room, byte[] snapshot) {
+        pending.put(room, snapshot);
+        if (writerSleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // Partida acabou: não há o que restaurar
+    void remove(String room) {
+        submit(room, REMOVED);
+    }
+
+    private void run() {
+        while (true) {
+            if (pending.isEmpty()) {
+                writerSleeping = true;
+                // Confere de novo depois de avisar: quem entregou antes viu writerSleeping falso
+                if (pending.isEmpty()) {
+                    LockSupport.park();
+                }
+                writerSleeping = false;
+            }
+            writePending();
+            LockSupport.parkNanos(WRITE_INTERVAL_NANOS);
+        }
+    }
+
+    private void writePending() {
+        for (String room : new ArrayList<>(pending.keySet())) {
+            byte[] snapshot = pending.remove(room);
+            if (snapshot == null) continue;
+
+            Path file = directory.resolve(fileName(room));
+            try {
+                if (snapshot == REMOVED) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Files.createDirectories(directory);
+                Path temp = directory.resolve(fileName(room) + ".tmp");
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    channel.write(ByteBuffer.wrap(snapshot));
+                    channel.force(false);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                server.logWarn("Erro ao gravar a foto da sala " + room + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Nome seguro para o arquivo; o hash separa salas que viram o mesmo nome
+    private static String fileName(String room) {
+        return room.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + Integer.toHexString(room.hashCode()) + EXTENSION;
+    }
+
+    // Na partida do servidor, antes de aceitar conexões; arquivos ilegíveis são ignorados
+    java.util.List<MatchSnapshot> loadAll() {
+        java.util.List<MatchSnapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        java.util.List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.toString().endsWith(EXTENSION)).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            server.logWarn("Erro ao ler " + directory + ": " + e.getMessage());
+            return snapshots;
+        }
+        for (Path file : files) {
+            try {
+                snapshots.add(MatchSnapshot.decode(Files.readAllBytes(file)));
+            } catch (IOException e) {
+                server.logWarn("Foto " + file + " ignorada: " + e.getMessage());
+            }
+        }
+        return snapshots;
+    }
+}
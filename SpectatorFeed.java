@@ -0,0 +1,179 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Espectadores de uma sala (SPECTATE|sala). A sala só publica cada mensagem aqui (a
+// mesma OutboundMessage dos jogadores, já codificada uma vez) e segue; uma única tarefa
+// no agendador compartilhado entrega os quadros acumulados a todos os espectadores,
+// com um flush por espectador. A fila de saída deles usa a política SKIP: espectador
+// lento recebe o estado mais recente e perde texto antigo, mas nunca segura a sala.
+public class SpectatorFeed {
+    private static final class Frame {
+        final long seq;
+        final OutboundMessage message;
+        final long publishedAt = System.nanoTime();
+
+        Frame(long seq, OutboundMessage message) {
+            this.seq = seq;
+            this.message = message;
+        }
+    }
+
+    private final GameRoom room;
+    private final GameServer server;
+    // Publicar, inscrever e montar o keyframe; nunca segura a sala esperando socket
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastSeq = 0;
+    private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+    // Espectador -> último quadro já coberto pelo estado que recebeu ao entrar
+    private final Map<ClientHandler, Long> spectators = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    // Keyframe dos espectadores lentos: montado uma vez e compartilhado até o estado mudar
+    private OutboundMessage keyframe;
+    private boolean closed = false;
+
+    SpectatorFeed(GameRoom room, GameServer server) {
+        this.room = room;
+        this.server = server;
+    }
+
+    int size() {
+        return spectators.size();
+    }
+
+    // Chamado pela sala depois de enfileirar para os jogadores
+    void publish(OutboundMessage message) {
+        lock.lock();
+        try {
+            // Sem espectadores não guarda nada (dentro da trava para não perder um que entra)
+            if (closed || spectators.isEmpty()) {
+                return;
+            }
+            if (message.startsWith("PLAYERS_")) {
+                keyframe = null;
+            }
+            pending.add(new Frame(++lastSeq, message));
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    // Sob o turnLock da sala (sendState manda o estado atual): o que foi publicado antes
+    // já está no estado e não é entregue de novo; o que vier depois chega depois dele
+    String subscribe(ClientHandler handler, Runnable sendState) {
+        lock.lock();
+        try {
+            if (closed) {
+                return "Sala não existe";
+            }
+            if (spectators.size() >= server.config.maxSpectators) {
+                return server.config.maxSpectators == 0 ? "Espectadores desativados" : "Sala lotada de espectadores";
+            }
+            sendState.run();
+            handler.flushOutbound();
+            spectators.put(handler, lastSeq);
+        } finally {
+            lock.unlock();
+        }
+        return null;
+    }
+
+    boolean unsubscribe(ClientHandler handler) {
+        return spectators.remove(handler) != null;
+    }
+
+    // Sala removida: avisa depois dos quadros pendentes e solta todos
+    void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.add(new Frame(++lastSeq, new OutboundMessage("SPECTATE_ENDED|" + room.name)));
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    // Estado completo para o espectador que encheu a fila (e para o RESYNC)
+    OutboundMessage keyframe() {
+        lock.lock();
+        try {
+            if (keyframe == null) {
+                String state = room.buildKeyframe();
+                keyframe = state != null ? new OutboundMessage(state) : null;
+            }
+            return keyframe;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            // Com a roda de 50 ms os quadros de um turno costumam sair juntos
+            server.getScheduler().schedule(this::drain, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Só uma por vez (draining): os quadros saem na ordem em que foram publicados
+    private void drain() {
+        try {
+            java.util.List<Frame> batch = new ArrayList<>();
+            Frame frame;
+            while ((frame = pending.poll()) != null) {
+                batch.add(frame);
+            }
+            if (!batch.isEmpty()) {
+                fanOut(batch);
+            }
+        } catch (RuntimeException e) {
+            server.logError("[" + room.name + "] Erro ao enviar para espectadores: " + e);
+        } finally {
+            draining.set(false);
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private void fanOut(java.util.List<Frame> batch) {
+        long start = System.nanoTime();
+        boolean ending = false;
+        Iterator<Map.Entry<ClientHandler, Long>> it = spectators.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ClientHandler, Long> entry = it.next();
+            ClientHandler spectator = entry.getKey();
+            long since = entry.getValue();
+            boolean open = true;
+            for (Frame frame : batch) {
+                if (frame.seq > since && !spectator.offer(frame.message)) {
+                    // espectador desconectado
+                    open = false;
+                    break;
+                }
+            }
+            if (open) {
+                spectator.flushOutbound();
+            } else {
+                it.remove();
+            }
+        }
+        for (Frame frame : batch) {
+            server.metrics.spectatorLag.record((start - frame.publishedAt) / 1000);
+            ending |= frame.message.startsWith("SPECTATE_ENDED");
+        }
+        room.metrics.recordSpectatorFanOut(System.nanoTime() - start);
+
+        if (ending) {
+            for (ClientHandler spectator : spectators.keySet()) {
+                spectator.spectateEnded(this);
+            }
+            spectators.clear();
+        }
+    }
+}
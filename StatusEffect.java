@@ -0,0 +1,86 @@
+// Efeitos de status: cada um é um bit da máscara do jogador e um índice no vetor de
+// durações. O protocolo usa o código de uma letra seguido dos turnos ("p3f2").
+// A máscara é um long: até 64 efeitos sem mudar a representação.
+public enum StatusEffect {
+    POISON('p', "poison", 5, "veneno"),
+    FROZEN('f', "frozen", 0, null),
+    BLEEDING('b', "bleeding", 6, "sangramento"),
+    STUNNED('s', "stunned", 0, null);
+
+    static final StatusEffect[] VALUES = values();
+    // Impedem o jogador de agir no turno
+    static final long PARALYZING = FROZEN.bit | STUNNED.bit;
+    // Causam dano no início de cada turno
+    static final long DAMAGE_OVER_TIME = damageOverTimeMask();
+
+    private static final StatusEffect[] BY_CODE = new StatusEffect[128];
+    static {
+        for (StatusEffect effect : VALUES) {
+            BY_CODE[effect.code] = effect;
+        }
+    }
+
+    final char code;
+    final String label;
+    final long bit;
+    final int damagePerTurn;
+    final String damageName;
+
+    StatusEffect(char code, String label, int damagePerTurn, String damageName) {
+        this.code = code;
+        this.label = label;
+        this.bit = 1L << ordinal();
+        this.damagePerTurn = damagePerTurn;
+        this.damageName = damageName;
+    }
+
+    private static long damageOverTimeMask() {
+        long mask = 0;
+        for (StatusEffect effect : values()) {
+            if (effect.damagePerTurn > 0) mask |= effect.bit;
+        }
+        return mask;
+    }
+
+    static StatusEffect fromCode(char code) {
+        return code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    // Formato do protocolo: código + turnos de cada efeito ativo; vazio se nenhum
+    static void appendCodes(StringBuilder sb, long mask, int[] turns) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            sb.append(VALUES[index].code).append(turns[index]);
+        }
+    }
+
+    // Preenche turns e devolve a máscara; códigos desconhecidos são ignorados
+    static long parseCodes(String codes, int[] turns) {
+        long mask = 0;
+        int i = 0;
+        while (i < codes.length()) {
+            StatusEffect effect = fromCode(codes.charAt(i++));
+            int duration = 0;
+            while (i < codes.length() && Character.isDigit(codes.charAt(i))) {
+                duration = duration * 10 + (codes.charAt(i++) - '0');
+            }
+            if (effect != null) {
+                mask |= effect.bit;
+                turns[effect.ordinal()] = duration;
+            }
+        }
+        return mask;
+    }
+
+    // Texto para log e telas, ex.: "poison(3) frozen(2)"
+    static String describe(long mask, int[] turns) {
+        if (mask == 0) return "Nenhum";
+        StringBuilder sb = new StringBuilder();
+        for (long m = mask; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            if (sb.length() > 0) sb.append(" ");
+            sb.append(VALUES[index].label).append("(").append(turns[index]).append(")");
+        }
+        return sb.toString();
+    }
+}
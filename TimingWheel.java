@@ -0,0 +1,113 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+// Roda de tempo (hashed timing wheel): uma thread só para milhares de prazos.
+// Agendar e cancelar são O(1); as tarefas vencidas rodam no executor informado.
+public class TimingWheel {
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick = 0;
+
+    // Prazo agendado; cancel() só marca, a remoção acontece quando o balde é visitado
+    final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled = false;
+
+        Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        long getRemainingMillis() {
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+
+        Thread worker = new Thread(this::run, "timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = tickDeadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+
+            transferPendingTimeouts();
+            expireBucket(buckets[(int) (tick & mask)], System.nanoTime());
+            tick++;
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) continue;
+
+            long ticks = (timeout.deadlineNanos - startNanos) / tickNanos;
+            long targetTick = Math.max(ticks, tick);
+            timeout.remainingRounds = (targetTick - tick) / buckets.length;
+            buckets[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(ArrayDeque<Timeout> bucket, long now) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0 && timeout.deadlineNanos <= now + tickNanos) {
+                it.remove();
+                try {
+                    executor.execute(timeout.task);
+                } catch (RejectedExecutionException e) {
+                    // executor encerrado; nada a fazer
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+}
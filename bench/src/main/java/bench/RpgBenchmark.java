@@ -0,0 +1,34 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Um @Benchmark por caso do Benchmarks (pacote padrão): o JMH exige pacote nomeado e
+// daqui as classes do jogo só são alcançáveis por reflexão, feita uma vez no @Setup.
+// Exemplo: java -jar target/benchmarks.jar -prof gc -p name=parse.server.text,parse.server.binary
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class RpgBenchmark {
+    @Param({"turn.players2", "turn.players4", "turn.players6",
+            "state.full6", "state.delta6",
+            "parse.server.text", "parse.server.binary", "parse.client.text", "parse.client.binary",
+            "codec.encode.players6", "broadcast.fanout6", "broadcast.fanout64"})
+    public String name;
+
+    private LongSupplier operation;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        operation = (LongSupplier) Class.forName("Benchmarks").getMethod("operation", String.class).invoke(null, name);
+    }
+
+    @Benchmark
+    public long run() {
+        return operation.getAsLong();
+    }
+}